@@ -70,9 +70,19 @@ CREATE TABLE messages (
     message NVARCHAR(MAX),
     type NVARCHAR(50),
     time DATETIME2,
+    -- 房間內單調遞增的序號，由伺服器接收時在記憶體中指派
+    seq BIGINT,
     FOREIGN KEY (room_id) REFERENCES room(id),
     FOREIGN KEY (username) REFERENCES users(username)
 );
+-- 歷史訊息游標分頁使用
+CREATE INDEX IX_messages_room_id_id ON messages (room_id, id);
+-- 依序號補齊缺漏區間及啟動時取得各房間最大序號使用
+CREATE UNIQUE INDEX UX_messages_room_id_seq ON messages (room_id, seq) WHERE seq IS NOT NULL;
+-- 既有資料庫的升級：依ID順序回填序號
+-- ALTER TABLE messages ADD seq BIGINT NULL;
+-- UPDATE m SET seq = n.rn FROM messages m JOIN (
+--     SELECT id, ROW_NUMBER() OVER (PARTITION BY room_id ORDER BY id) AS rn FROM messages) n ON n.id = m.id;
 CREATE TABLE security_questions (
     id INT PRIMARY KEY IDENTITY(1,1),
     username NVARCHAR(50) UNIQUE,
@@ -87,8 +97,50 @@ CREATE TABLE rsa_entity (
     name NVARCHAR(255) NOT NULL UNIQUE,
     pub NVARCHAR(MAX) NOT NULL,
     signature NVARCHAR(MAX) NOT NULL,
-    data NVARCHAR(MAX) NOT NULL
+    -- 舊版以 Base64 保存的檔案內容，新版為 NULL
+    data NVARCHAR(MAX) NULL,
+    size BIGINT NULL,
+    digest CHAR(64) NULL,
+    created_at DATETIME2 NOT NULL DEFAULT SYSDATETIME(),
+    -- 簽章演算法 (JCA 名稱)，舊資料皆為 MD5withRSA
+    algorithm NVARCHAR(50) NOT NULL DEFAULT 'MD5withRSA'
 );
+-- 匯出檔列表分頁使用
+CREATE INDEX IX_rsa_entity_username_created_at ON rsa_entity (username, created_at DESC, id DESC)
+    INCLUDE (name, size, digest);
+-- 匯出檔的二進位內容，與中繼資料分開存放
+CREATE TABLE rsa_entity_content (
+    rsa_entity_id INT PRIMARY KEY,
+    content VARBINARY(MAX) NOT NULL,
+    FOREIGN KEY (rsa_entity_id) REFERENCES rsa_entity(id)
+);
+-- 既有資料庫的升級
+-- ALTER TABLE rsa_entity ALTER COLUMN data NVARCHAR(MAX) NULL;
+-- ALTER TABLE rsa_entity ADD size BIGINT NULL, digest CHAR(64) NULL,
+--     created_at DATETIME2 NOT NULL CONSTRAINT DF_rsa_entity_created_at DEFAULT SYSDATETIME();
+-- ALTER TABLE rsa_entity ADD algorithm NVARCHAR(50) NOT NULL
+--     CONSTRAINT DF_rsa_entity_algorithm DEFAULT 'MD5withRSA';
+
+-- JWT 簽發稽核記錄
+CREATE TABLE jwt_tokens (
+    id INT IDENTITY(1,1) PRIMARY KEY,
+    exp DATETIME2 NOT NULL,
+    iat DATETIME2 NOT NULL,
+    jti NVARCHAR(255) NOT NULL,
+    iss NVARCHAR(255),
+    sub NVARCHAR(255) NOT NULL,
+    typ NVARCHAR(50)
+);
+-- 過期記錄的清除作業使用
+CREATE INDEX IX_jwt_tokens_exp ON jwt_tokens (exp);
+-- 已撤銷 (登出) 的 JWT，過期後即可刪除
+CREATE TABLE jwt_revocations (
+    jti NVARCHAR(255) PRIMARY KEY,
+    sub NVARCHAR(255) NOT NULL,
+    exp DATETIME2 NOT NULL,
+    revoked_at DATETIME2 NOT NULL DEFAULT SYSDATETIME()
+);
+CREATE INDEX IX_jwt_revocations_exp ON jwt_revocations (exp);
 
 
 INSERT INTO [group] (name) VALUES ('Group 1');
@@ -0,0 +1,67 @@
+package com.mli.discord.core.interceptor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+import com.mli.discord.core.exception.InvalidJwtAuthenticationException;
+import com.mli.discord.module.login.model.StompPrincipal;
+import com.mli.discord.module.login.service.JwtService;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * STOMP CONNECT 身份驗證攔截器。
+ * 從 CONNECT 幀的 Authorization 標頭讀取 JWT，驗證後將不可變的 StompPrincipal 設為 WebSocket 會話的 Principal，
+ * 之後同一連線的消息皆帶有此用戶，不依賴 HTTP 會話；非 CONNECT 幀只做一次命令判斷即放行。
+ *
+ * @Author D3031104
+ * @version 1.0
+ */
+@Component
+public class JwtStompAuthenticationInterceptor implements ChannelInterceptor {
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    /**
+     * 驗證 CONNECT 幀的令牌，缺少或無效時拒絕連線（客戶端收到 ERROR 幀）。
+     *
+     * @param message 消息體
+     * @param channel 消息通道
+     * @return 處理後的消息
+     */
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || !StompCommand.CONNECT.equals(accessor.getCommand())) {
+            return message;
+        }
+        String authHeader = accessor.getFirstNativeHeader("Authorization");
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            throw new InvalidJwtAuthenticationException("Missing bearer token in STOMP CONNECT");
+        }
+        Claims claims = jwtService.validateToken(authHeader.substring(7));
+        if (claims == null || claims.getSubject() == null) {
+            throw new InvalidJwtAuthenticationException("Invalid or expired token in STOMP CONNECT");
+        }
+
+        UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+        // 綁定不可變身份，之後同一會話的幀由 StompSubProtocolHandler 直接帶入，不需重新驗證
+        accessor.setUser(new StompPrincipal(userDetails.getUsername(), userDetails.getAuthorities()));
+        logger.debug("STOMP CONNECT authenticated as {}", userDetails.getUsername());
+        return message;
+    }
+}
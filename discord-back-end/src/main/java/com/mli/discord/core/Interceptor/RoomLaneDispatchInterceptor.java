@@ -0,0 +1,117 @@
+package com.mli.discord.core.interceptor;
+
+import java.io.IOException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mli.discord.core.util.PartitionedExecutor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 聊天消息的房間分區派送攔截器。
+ * 客戶端入站通道原本由無序的執行緒池處理，同一房間的消息可能同時在不同執行緒上儲存與廣播，造成順序不一致。
+ * 此攔截器在接收執行緒上依 roomId 將 /app/message 的 SEND 幀交給固定的單執行緒通道，
+ * 由通道直接呼叫註解消息處理器，使同一房間依接收順序處理，不同房間仍可並行。
+ *
+ * @Author D3031104
+ * @version 1.0
+ */
+@Component
+public class RoomLaneDispatchInterceptor implements ChannelInterceptor {
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private static final String MESSAGE_DESTINATION = "/app/message";
+
+    // 處理器依賴入站通道，延遲取得以避免循環依賴
+    @Lazy
+    @Autowired
+    @Qualifier("simpAnnotationMethodMessageHandler")
+    private MessageHandler simpAnnotationMethodMessageHandler;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${discord.message.lanes.count:0}")
+    private int laneCount;
+    @Value("${discord.message.lanes.capacity:1000}")
+    private int laneCapacity;
+    @Value("${discord.message.lanes.offer-timeout-ms:100}")
+    private long offerTimeoutMs;
+
+    private PartitionedExecutor lanes;
+
+    @PostConstruct
+    public void init() {
+        int count = laneCount > 0 ? laneCount : Runtime.getRuntime().availableProcessors();
+        lanes = new PartitionedExecutor("discord.stomp.room-lanes", count, laneCapacity, offerTimeoutMs,
+                meterRegistry);
+        lanes.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lanes.shutdown(5000);
+    }
+
+    /**
+     * 將房間消息交給對應的通道處理，並中止入站通道的預設派送。
+     *
+     * @param message 消息體
+     * @param channel 消息通道
+     * @return 已交給通道時返回 null；其他消息原樣返回
+     */
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || !StompCommand.SEND.equals(accessor.getCommand())
+                || !MESSAGE_DESTINATION.equals(accessor.getDestination())) {
+            return message;
+        }
+        Integer roomId = readRoomId(message.getPayload());
+        if (roomId == null) {
+            return message;
+        }
+        if (!lanes.execute(roomId, () -> simpAnnotationMethodMessageHandler.handleMessage(message))) {
+            logger.warn("Room lane for room {} is saturated, dropping message from session {}", roomId,
+                    accessor.getSessionId());
+        }
+        return null;
+    }
+
+    private Integer readRoomId(Object payload) {
+        if (!(payload instanceof byte[])) {
+            return null;
+        }
+        try {
+            JsonNode roomId = objectMapper.readTree((byte[]) payload).get("roomId");
+            if (roomId == null || !(roomId.isNumber() || roomId.isTextual())) {
+                return null;
+            }
+            // 前端可能以字串傳送房間ID
+            int value = roomId.asInt(Integer.MIN_VALUE);
+            return value == Integer.MIN_VALUE ? null : value;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
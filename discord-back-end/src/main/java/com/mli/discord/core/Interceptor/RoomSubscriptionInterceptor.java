@@ -0,0 +1,89 @@
+package com.mli.discord.core.interceptor;
+
+import java.security.Principal;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import com.mli.discord.module.grouping.service.UserToRoomService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 房間主題訂閱授權攔截器。
+ * SUBSCRIBE /topic/message/{roomId} 時以記憶體中的成員索引確認訂閱者為房間成員，不查詢資料庫；
+ * 非成員的訂閱直接丟棄，不會在代理中註冊，也不會收到該房間的廣播。
+ *
+ * @Author D3031104
+ * @version 1.0
+ */
+@Component
+public class RoomSubscriptionInterceptor implements ChannelInterceptor {
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private static final String ROOM_TOPIC_PREFIX = "/topic/message/";
+
+    @Autowired
+    private UserToRoomService userToRoomService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Counter allowedCounter;
+    private Counter deniedCounter;
+
+    @PostConstruct
+    public void init() {
+        allowedCounter = Counter.builder("discord.stomp.subscribe").tag("decision", "allowed")
+                .register(meterRegistry);
+        deniedCounter = Counter.builder("discord.stomp.subscribe").tag("decision", "denied")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 檢查房間主題的訂閱權限。
+     *
+     * @param message 消息體
+     * @param channel 消息通道
+     * @return 允許時返回原消息；拒絕時返回 null 丟棄此訂閱
+     */
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || !StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            return message;
+        }
+        String destination = accessor.getDestination();
+        if (destination == null || !destination.startsWith(ROOM_TOPIC_PREFIX)) {
+            return message;
+        }
+
+        Principal user = accessor.getUser();
+        Integer roomId = parseRoomId(destination.substring(ROOM_TOPIC_PREFIX.length()));
+        if (user != null && roomId != null && userToRoomService.isUserInRoom(user.getName(), roomId)) {
+            allowedCounter.increment();
+            return message;
+        }
+        deniedCounter.increment();
+        logger.warn("Denied subscription to {} for {}", destination, user != null ? user.getName() : "anonymous");
+        return null;
+    }
+
+    private static Integer parseRoomId(String value) {
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -9,6 +9,7 @@ import javax.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
@@ -39,11 +40,14 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
-import com.mli.discord.module.login.dao.UserDAO;
+import com.mli.discord.core.util.BoundedPasswordEncoder;
 import com.mli.discord.module.login.filter.JwtAuthenticationFilter;
+import com.mli.discord.module.login.repository.UserDetailsCache;
 import com.mli.discord.module.login.service.JwtService;
 import com.mli.discord.module.login.service.UserService;
 
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 
 /**
@@ -68,7 +72,18 @@ public class SecurityConfig {
 	@Autowired
 	private JwtService jwtService;
 	@Autowired
-	private UserDAO userDAO;
+	private UserDetailsCache userDetailsCache;
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${discord.security.password-hash.workers:0}")
+	private int passwordHashWorkers;
+	@Value("${discord.security.password-hash.queue-capacity:64}")
+	private int passwordHashQueueCapacity;
+	@Value("${discord.security.password-hash.timeout-ms:5000}")
+	private long passwordHashTimeoutMs;
+	@Value("${discord.security.password-hash.bcrypt-strength:10}")
+	private int bcryptStrength;
 
 	/**
 	 * 身份驗證提供者的Bean定義。
@@ -80,19 +95,20 @@ public class SecurityConfig {
 		DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
 		provider.setUserDetailsService(userService);
 		provider.setPasswordEncoder(passwordEncoder());
+		// 登入成功且雜湊強度與設定不同時，以新的強度重新雜湊並寫回
+		provider.setUserDetailsPasswordService(userService);
 		return provider;
 	}
 
 	/**
 	 * 提供UserDetailsService的Bean配置。
-	 * 此服務用於根據用戶名從資料庫檢索用戶詳情。
+	 * 此服務用於根據用戶名檢索用戶詳情，結果快取於UserDetailsCache，未命中時才查詢資料庫。
 	 * 
 	 * @return UserDetailsService實例
 	 */
 	@Bean
 	UserDetailsService userDetailsService() {
-		return username -> userDAO.findByUsername(username)
-				.orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
+		return username -> userDetailsCache.get(username, userService::loadUserByUsername);
 	}
 
 	/**
@@ -115,16 +131,19 @@ public class SecurityConfig {
 							"/add-security-question")
 							.permitAll()
 							// 要求ADMIN或NORMAL權限的URL
-							.antMatchers("/export-chat-history", "save-chat-history").hasAuthority("ADMIN")
+							.antMatchers("/export-chat-history", "/stream-chat-history", "/user-to-room/move-users")
+							.hasAuthority("ADMIN")
+							// 提交匯出工作與查詢其狀態使用相同規則，工作只能由提交者查詢
 							.antMatchers("/user-to-room/**", "/user-to-group/**", "/send", "/get-messages",
 									"/room/find-all-rooms", "/groups/find-all-groups", "/modify-security-question",
-									"/user/update-user-details", "user/renew-token")
+									"/user/update-user-details", "user/renew-token", "/save-chat-history",
+									"/export-jobs/**")
 							.hasAnyAuthority("ADMIN", "NORMAL").anyRequest().authenticated();
 				})
 				// 在UsernamePasswordAuthenticationFilter之前添加自定義JWT過濾器
 				.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
-				// 會話管理配置
-				.sessionManagement(management -> management.sessionCreationPolicy(SessionCreationPolicy.IF_REQUIRED))
+				// 會話管理配置：身份皆由JWT提供，不建立HTTP會話
+				.sessionManagement(management -> management.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
 				// 登出配置
 				.logout(logout -> {
 					logout.logoutUrl("/user/logout")
@@ -132,18 +151,33 @@ public class SecurityConfig {
 								@Override
 								public void logout(HttpServletRequest request, HttpServletResponse response,
 										Authentication authentication) {
-									if (authentication != null
-											&& authentication.getPrincipal() instanceof UserDetails) {
-										UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-										String logoutToken = jwtService.generateAndPersistLogoutToken(userDetails);
-										response.setContentType("application/json");
-										response.setStatus(HttpServletResponse.SC_OK);
-										try {
-											response.getWriter().write("{\"logoutToken\": \"" + logoutToken
-													+ "\", \"message\": \"Logout successful.\"}");
-										} catch (IOException e) {
-											logger.error("Error writing logout token to response", e);
-										}
+									// 登出請求在JWT過濾器之前處理，authentication一律為null，使用者由令牌本身取得
+									String authHeader = request.getHeader("Authorization");
+									if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+										return;
+									}
+									String token = authHeader.substring(7);
+									Claims claims = jwtService.validateToken(token);
+									if (claims == null || claims.getSubject() == null) {
+										return;
+									}
+									// 撤銷目前的存取令牌，使其在過期前無法再使用
+									jwtService.revokeToken(token);
+									UserDetails userDetails;
+									try {
+										userDetails = userDetailsService().loadUserByUsername(claims.getSubject());
+									} catch (UsernameNotFoundException e) {
+										logger.warn("Logout for unknown user: {}", claims.getSubject());
+										return;
+									}
+									String logoutToken = jwtService.generateAndPersistLogoutToken(userDetails);
+									response.setContentType("application/json");
+									response.setStatus(HttpServletResponse.SC_OK);
+									try {
+										response.getWriter().write("{\"logoutToken\": \"" + logoutToken
+												+ "\", \"message\": \"Logout successful.\"}");
+									} catch (IOException e) {
+										logger.error("Error writing logout token to response", e);
 									}
 								}
 							})
@@ -156,12 +190,16 @@ public class SecurityConfig {
 
 	/**
 	 * 密碼編碼器的Bean定義。
+	 * BCrypt 運算在獨立的有界執行緒池上執行，飽和時拋出 PasswordHashRejectedException，
+	 * 不佔用 Tomcat 工作執行緒。
 	 * 
 	 * @return 密碼編碼器
 	 */
 	@Bean
 	PasswordEncoder passwordEncoder() {
-		return new BCryptPasswordEncoder();
+		int workers = passwordHashWorkers > 0 ? passwordHashWorkers : Runtime.getRuntime().availableProcessors();
+		return new BoundedPasswordEncoder(new BCryptPasswordEncoder(bcryptStrength), workers,
+				passwordHashQueueCapacity, passwordHashTimeoutMs, meterRegistry);
 	}
 
 	/**
@@ -4,14 +4,14 @@ import java.security.Principal;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
-import javax.servlet.http.HttpServletRequest;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.context.event.EventListener;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.handler.annotation.MessageMapping;
@@ -22,18 +22,16 @@ import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
-import org.springframework.security.core.context.SecurityContext;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 import org.springframework.web.socket.messaging.SessionConnectEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 
-import com.mli.discord.core.interceptor.CustomHttpSessionHandshakeInterceptor;
+import com.mli.discord.core.interceptor.JwtStompAuthenticationInterceptor;
+import com.mli.discord.core.interceptor.RoomLaneDispatchInterceptor;
+import com.mli.discord.core.interceptor.RoomSubscriptionInterceptor;
 import com.mli.discord.module.message.model.Message;
 
 /**
@@ -49,6 +47,16 @@ public class WebSocketBrokerConfig implements WebSocketMessageBrokerConfigurer,
 
     private Set<String> connectedUsernames = ConcurrentHashMap.newKeySet();
     private ApplicationContext applicationContext;
+    // 避免循環依賴
+    @Lazy
+    @Autowired
+    private JwtStompAuthenticationInterceptor jwtStompAuthenticationInterceptor;
+    @Lazy
+    @Autowired
+    private RoomSubscriptionInterceptor roomSubscriptionInterceptor;
+    @Lazy
+    @Autowired
+    private RoomLaneDispatchInterceptor roomLaneDispatchInterceptor;
 
     @MessageMapping("/get-online-users")
     @SendTo("/topic/online-users")
@@ -69,19 +77,8 @@ public class WebSocketBrokerConfig implements WebSocketMessageBrokerConfigurer,
         registry.addEndpoint("/ws-message")
                 .setAllowedOriginPatterns(originPatterns)
                 // 通過 .withSockJS() 添加 SockJS 支持，這有助於在不支持原生 WebSocket 的瀏覽器中依然能使用類似 WebSocket 的通訊
-                .withSockJS()
-                // 使用 HttpSessionHandshakeInterceptor 在握手階段可以插入自定義邏輯
-                .setInterceptors(new CustomHttpSessionHandshakeInterceptor());
+                .withSockJS();
 
-        // 为了确保在登录时username正确设置在会话中并且能够被WebSocket握手拦截器使用，你应该检查以下几个关键点：
-        // 登录时会话创建：确保在登录成功后，HTTP会话被创建（如果之前不存在的话）。这一点在你的login方法中通过request.getSession(true)确保了新会话的创建。
-        // 会话ID保持一致性：客户端在建立WebSocket连接时使用的会话ID应该和它在登录时使用的HTTP会话ID相同。这通常意味着客户端需要保持cookie的一致性，或者在进行WebSocket连接时能够引用到同一个会话ID。
-        // 握手阶段的逻辑：确保HttpSessionHandshakeInterceptor在握手阶段能够从HTTP会话中读取username并正确地放入WebSocket会话属性中。这部分你已经通过自定义拦截器尝试实现。
-        // 前端WebSocket客户端：确保客户端在建立WebSocket连接时，正确地传递了需要的HTTP
-        // cookies（特别是包含会话ID的cookies），这样才能确保WebSocket服务器端能够关联到正确的HTTP会话。
-        // 后端安全配置：确保你的安全配置允许从WebSocket连接传递和使用HTTP cookies。有时候，特别是使用了某些安全框架（如Spring
-        // Security）时，可能需要额外配置来允许cookies的传递和识别。
-        ;
     }
 
     /**
@@ -91,8 +88,10 @@ public class WebSocketBrokerConfig implements WebSocketMessageBrokerConfigurer,
      */
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic");
+        config.enableSimpleBroker("/topic", "/queue");
         config.setApplicationDestinationPrefixes("/app");
+        // 出站通道依會話保持發布順序，避免房間通道依序廣播的消息在推送時又被打亂
+        config.setPreservePublishOrder(true);
     }
 
     /**
@@ -132,7 +131,11 @@ public class WebSocketBrokerConfig implements WebSocketMessageBrokerConfigurer,
      */
     @EventListener
     public void handleSessionDisconnect(SessionDisconnectEvent event) {
-        String username = event.getUser().getName();
+        Principal principal = event.getUser();
+        if (principal == null) {
+            return;
+        }
+        String username = principal.getName();
         connectedUsernames.remove(username);
         logger.info("{} disconnected", username);
         broadcastUpdatedUserList();
@@ -154,34 +157,30 @@ public class WebSocketBrokerConfig implements WebSocketMessageBrokerConfigurer,
     }
 
     /**
-     * 在STOMP連接建立時，讀取STOMP幀的headers，並將相關信息保存到會話屬性中。
+     * 在STOMP連接建立時，以CONNECT幀的JWT驗證用戶，並讀取STOMP幀的headers，將相關信息保存到會話屬性中；
+     * 訂閱房間主題時確認訂閱者為房間成員；房間消息依 roomId 交給固定的單執行緒通道依序處理。
      *
      * @param registration 頻道註冊器
      */
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
-        registration.interceptors(new ChannelInterceptor() {
+        ChannelInterceptor roomIdAttributeInterceptor = new ChannelInterceptor() {
             @Override
             public org.springframework.messaging.Message<?> preSend(org.springframework.messaging.Message<?> message,
                     MessageChannel channel) {
-                StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
-                if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+                // 取得原有的存取器而非 wrap 複製標頭，非 CONNECT 幀不做其他處理
+                StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+                if (accessor != null && StompCommand.CONNECT.equals(accessor.getCommand())) {
                     String roomId = accessor.getFirstNativeHeader("roomId");
                     if (roomId != null) {
                         accessor.getSessionAttributes().put("roomId", roomId);
                     }
                 }
-
-                // 這裡是新增的部分，确保每次訊息傳送前都設定好安全上下文
-                ServletRequestAttributes attr = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-                if (attr != null) {
-                    HttpServletRequest request = attr.getRequest();
-                    SecurityContext sc = (SecurityContext) request.getSession()
-                            .getAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY);
-                    SecurityContextHolder.setContext(sc);
-                }
                 return message;
             }
-        });
+        };
+        // 房間通道派送須放在最後：房間消息交給通道後即中止預設派送
+        registration.interceptors(jwtStompAuthenticationInterceptor, roomSubscriptionInterceptor,
+                roomIdAttributeInterceptor, roomLaneDispatchInterceptor);
     }
-}
\ No newline at end of file
+}
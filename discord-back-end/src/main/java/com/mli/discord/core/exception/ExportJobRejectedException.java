@@ -0,0 +1,22 @@
+package com.mli.discord.core.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * 匯出工作超過使用者或全域的並行上限時拋出。
+ *
+ * @Author D3031104
+ * @version 1.0
+ */
+public class ExportJobRejectedException extends RuntimeException {
+
+    private HttpStatus httpStatus = HttpStatus.TOO_MANY_REQUESTS;
+
+    public ExportJobRejectedException(String msg) {
+        super(msg);
+    }
+
+    public HttpStatus getHttpStatus() {
+        return httpStatus;
+    }
+}
@@ -0,0 +1,26 @@
+package com.mli.discord.core.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * 密碼雜湊執行緒池已滿或等待逾時時拋出，呼叫端應回應 503 讓用戶端稍後重試。
+ *
+ * @Author D3031104
+ * @version 1.0
+ */
+public class PasswordHashRejectedException extends RuntimeException {
+
+    private HttpStatus httpStatus = HttpStatus.SERVICE_UNAVAILABLE;
+
+    public PasswordHashRejectedException(String msg) {
+        super(msg);
+    }
+
+    public PasswordHashRejectedException(String msg, Throwable t) {
+        super(msg, t);
+    }
+
+    public HttpStatus getHttpStatus() {
+        return httpStatus;
+    }
+}
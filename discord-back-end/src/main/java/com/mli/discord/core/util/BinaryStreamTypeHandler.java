@@ -0,0 +1,61 @@
+package com.mli.discord.core.util;
+
+import java.io.InputStream;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.springframework.lang.NonNull;
+
+/**
+ * 以串流方式讀寫 VARBINARY(MAX) 欄位的 MyBatis TypeHandler，
+ * 避免將整個二進位內容載入成 byte 陣列。
+ *
+ * @Author D3031104
+ * @version 1.0
+ */
+public class BinaryStreamTypeHandler extends BaseTypeHandler<InputStream> {
+
+    /**
+     * 將 InputStream 以串流方式設置到 PreparedStatement 中，由 JDBC 驅動程式邊讀邊送出。
+     *
+     * @param ps        PreparedStatement 對象
+     * @param i         索引位置
+     * @param parameter 內容串流
+     * @param jdbcType  JdbcType
+     * @throws SQLException 如果設置參數時發生 SQL 錯誤
+     */
+    @Override
+    public void setNonNullParameter(@NonNull PreparedStatement ps, int i, InputStream parameter,
+            JdbcType jdbcType) throws SQLException {
+        ps.setBinaryStream(i, parameter);
+    }
+
+    /**
+     * 從 ResultSet 中取得指定欄位的二進位串流，串流在游標移動或結果集關閉前有效。
+     *
+     * @param rs         ResultSet 對象
+     * @param columnName 欄位名稱
+     * @return 內容串流，如果為 null 則返回 null
+     * @throws SQLException 如果從 ResultSet 中獲取值時發生 SQL 錯誤
+     */
+    @Override
+    public InputStream getNullableResult(@NonNull ResultSet rs, String columnName) throws SQLException {
+        return rs.getBinaryStream(columnName);
+    }
+
+    @Override
+    public InputStream getNullableResult(@NonNull ResultSet rs, int columnIndex) throws SQLException {
+        return rs.getBinaryStream(columnIndex);
+    }
+
+    @Override
+    public InputStream getNullableResult(@NonNull CallableStatement cs, int columnIndex) throws SQLException {
+        Blob blob = cs.getBlob(columnIndex);
+        return blob != null ? blob.getBinaryStream() : null;
+    }
+}
@@ -0,0 +1,80 @@
+package com.mli.discord.core.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.commons.codec.digest.MurmurHash3;
+
+/**
+ * 字串的布隆過濾器（Bloom filter）。
+ * mightContain 返回 false 時必定不存在；返回 true 時可能存在，需由呼叫端以精確集合確認。
+ * 位元陣列以 AtomicLongArray 保存，新增與查詢皆不需加鎖；不支援刪除，須定期重建。
+ *
+ * @Author D3031104
+ * @version 1.0
+ */
+public class BloomFilter {
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * 依預期筆數與誤判率建立布隆過濾器。
+     *
+     * @param expectedInsertions 預期新增的筆數
+     * @param falsePositiveRate  可接受的誤判率 (0-1)
+     */
+    public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        int n = Math.max(1, expectedInsertions);
+        // m = -n ln p / (ln 2)^2，k = m / n ln 2
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = new AtomicLongArray((int) Math.max(1, (m + 63) / 64));
+        this.bitCount = bits.length() * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    /**
+     * 新增字串。
+     *
+     * @param value 字串
+     */
+    public void put(String value) {
+        long[] hash = hash(value);
+        for (int i = 0; i < hashCount; i++) {
+            long index = bitIndex(hash, i);
+            long mask = 1L << (index & 63);
+            int word = (int) (index >>> 6);
+            if ((bits.get(word) & mask) == 0) {
+                bits.accumulateAndGet(word, mask, (current, bit) -> current | bit);
+            }
+        }
+    }
+
+    /**
+     * 判斷字串是否可能存在。
+     *
+     * @param value 字串
+     * @return 可能存在返回 true；必定不存在返回 false
+     */
+    public boolean mightContain(String value) {
+        long[] hash = hash(value);
+        for (int i = 0; i < hashCount; i++) {
+            long index = bitIndex(hash, i);
+            if ((bits.get((int) (index >>> 6)) & (1L << (index & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long[] hash(String value) {
+        return MurmurHash3.hash128x64(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 以雙重雜湊 (h1 + i * h2) 產生第 i 個位元位置。
+     */
+    private long bitIndex(long[] hash, int i) {
+        return Math.floorMod(hash[0] + i * hash[1], bitCount);
+    }
+}
@@ -0,0 +1,168 @@
+package com.mli.discord.core.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * 依分區鍵分派工作的執行器。
+ * 由 N 條通道（lane）組成，每條通道有自己的有界佇列與單一執行緒；相同鍵的工作固定進入同一通道，
+ * 因此依提交順序逐一執行，不同通道之間則可並行。
+ *
+ * @Author D3031104
+ * @version 1.0
+ */
+public class PartitionedExecutor {
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final String name;
+    private final Lane[] lanes;
+    private final long offerTimeoutMs;
+
+    private final Timer waitTimer;
+    private final Timer executeTimer;
+    private final Counter rejectedCounter;
+
+    private volatile boolean running;
+
+    /**
+     * 建立分區執行器。
+     *
+     * @param name           名稱，用於執行緒名稱與指標前綴
+     * @param laneCount      通道數
+     * @param laneCapacity   每條通道的佇列容量
+     * @param offerTimeoutMs 通道已滿時提交的最長等待時間（毫秒）
+     * @param meterRegistry  指標註冊器
+     */
+    public PartitionedExecutor(String name, int laneCount, int laneCapacity, long offerTimeoutMs,
+            MeterRegistry meterRegistry) {
+        this.name = name;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane(i, laneCapacity);
+            Gauge.builder(name + ".queue.depth", lanes[i].queue, BlockingQueue::size).tag("lane", String.valueOf(i))
+                    .register(meterRegistry);
+        }
+        this.waitTimer = Timer.builder(name + ".wait").register(meterRegistry);
+        this.executeTimer = Timer.builder(name + ".execute").register(meterRegistry);
+        this.rejectedCounter = Counter.builder(name + ".rejected").register(meterRegistry);
+    }
+
+    /**
+     * 啟動所有通道的執行緒。
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (Lane lane : lanes) {
+            lane.start();
+        }
+    }
+
+    /**
+     * 將工作提交到鍵對應的通道。通道已滿時最多等待 offerTimeoutMs，以此對提交端施加背壓。
+     *
+     * @param key  分區鍵，相同鍵的工作依提交順序執行
+     * @param task 工作
+     * @return 成功提交返回 true；已關閉或等待逾時返回 false
+     */
+    public boolean execute(Object key, Runnable task) {
+        if (!running) {
+            rejectedCounter.increment();
+            return false;
+        }
+        Lane lane = lanes[Math.floorMod(key.hashCode(), lanes.length)];
+        try {
+            if (lane.queue.offer(new Task(task, System.nanoTime()), offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejectedCounter.increment();
+        return false;
+    }
+
+    /**
+     * 停止所有通道；已在佇列中的工作會先執行完畢。
+     *
+     * @param timeoutMs 每條通道等待的最長時間（毫秒）
+     */
+    public void shutdown(long timeoutMs) {
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+        }
+        for (Lane lane : lanes) {
+            try {
+                lane.worker.join(timeoutMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static final class Task {
+        private final Runnable runnable;
+        private final long enqueuedAt;
+
+        private Task(Runnable runnable, long enqueuedAt) {
+            this.runnable = runnable;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    private final class Lane {
+        private final BlockingQueue<Task> queue;
+        private final Thread worker;
+
+        private Lane(int index, int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.worker = new Thread(this::run, name + "-lane-" + index);
+            this.worker.setDaemon(true);
+        }
+
+        private void start() {
+            worker.start();
+        }
+
+        private void run() {
+            while (running || !queue.isEmpty()) {
+                Task task;
+                try {
+                    task = queue.poll(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (task == null) {
+                    continue;
+                }
+                long start = System.nanoTime();
+                waitTimer.record(start - task.enqueuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    task.runnable.run();
+                } catch (Exception e) {
+                    // 單一工作失敗不可中斷通道，否則之後同鍵的工作都會停滯
+                    logger.error("Task failed on {}", Thread.currentThread().getName(), e);
+                } finally {
+                    executeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+    }
+}
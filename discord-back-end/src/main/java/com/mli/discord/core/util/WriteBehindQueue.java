@@ -0,0 +1,185 @@
+package com.mli.discord.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * 有界的寫後（write-behind）佇列。
+ * 呼叫端將資料放入佇列後立即返回，由單一背景執行緒依批次大小或時間窗口批次寫出。
+ *
+ * @param <T> 佇列中的資料型別
+ * @Author D3031104
+ * @version 1.0
+ */
+public class WriteBehindQueue<T> {
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final String name;
+    private final BlockingQueue<T> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long offerTimeoutMs;
+    private final Consumer<List<T>> flusher;
+
+    private final Timer flushTimer;
+    private final Counter rejectedCounter;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    /** 放入時持有讀鎖、關閉時持有寫鎖，確保關閉後的最終寫出不會遺漏已成功放入的資料 */
+    private final ReadWriteLock stateLock = new ReentrantReadWriteLock();
+
+    /**
+     * 建立寫後佇列。
+     *
+     * @param name            佇列名稱，用於執行緒名稱與指標前綴
+     * @param capacity        佇列容量
+     * @param batchSize       單批次最大筆數
+     * @param flushIntervalMs 批次等待的時間窗口（毫秒）
+     * @param offerTimeoutMs  佇列已滿時放入的最長等待時間（毫秒）
+     * @param flusher         實際寫出批次的函數
+     * @param meterRegistry   指標註冊器
+     */
+    public WriteBehindQueue(String name, int capacity, int batchSize, long flushIntervalMs, long offerTimeoutMs,
+            Consumer<List<T>> flusher, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.flusher = flusher;
+
+        Gauge.builder(name + ".queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        this.flushTimer = Timer.builder(name + ".flush").register(meterRegistry);
+        this.rejectedCounter = Counter.builder(name + ".rejected").register(meterRegistry);
+    }
+
+    /**
+     * 啟動背景寫出執行緒。
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, name + "-flusher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * 將資料放入佇列。佇列已滿時最多等待 offerTimeoutMs，以此對呼叫端施加背壓。
+     *
+     * @param item 要寫出的資料
+     * @return 成功放入返回 true；佇列已關閉或等待逾時返回 false
+     */
+    public boolean offer(T item) {
+        stateLock.readLock().lock();
+        try {
+            if (running && queue.offer(item, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            stateLock.readLock().unlock();
+        }
+        rejectedCounter.increment();
+        return false;
+    }
+
+    /**
+     * 停止背景執行緒，並將佇列中剩餘的資料全部寫出。
+     */
+    public void shutdown() {
+        // 等待進行中的放入完成後才標記為停止，之後的放入皆會被拒絕
+        stateLock.writeLock().lock();
+        try {
+            synchronized (this) {
+                if (!running) {
+                    return;
+                }
+                running = false;
+            }
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+        try {
+            worker.join(flushIntervalMs * 10 + 5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 背景執行緒結束後仍可能有殘留資料，在此同步寫出
+        List<T> remaining = new ArrayList<>();
+        while (queue.drainTo(remaining, batchSize) > 0) {
+            flush(remaining);
+            remaining = new ArrayList<>();
+        }
+        logger.info("{} shut down", name);
+    }
+
+    /**
+     * 取得目前佇列中的資料筆數。
+     *
+     * @return 佇列深度
+     */
+    public int depth() {
+        return queue.size();
+    }
+
+    private void run() {
+        while (running || !queue.isEmpty()) {
+            try {
+                T first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<T> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remainingNanos = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remainingNanos <= 0) {
+                        break;
+                    }
+                    T next = queue.poll(remainingNanos, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    private void flush(List<T> batch) {
+        long start = System.nanoTime();
+        try {
+            flusher.accept(batch);
+        } catch (Exception e) {
+            logger.error("{} failed to flush {} item(s)", name, batch.size(), e);
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
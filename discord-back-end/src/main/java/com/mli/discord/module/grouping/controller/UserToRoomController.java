@@ -60,6 +60,27 @@ public class UserToRoomController {
         }
     }
 
+    /**
+     * 批次將使用者移至房間，供管理工具使用。
+     *
+     * @param userToRooms 使用者與房間關聯列表
+     * @return ResponseEntity 包含移動的使用者數量
+     */
+    @Operation(summary = "批次將使用者移至房間")
+    @PostMapping("/move-users")
+    public ResponseEntity<?> moveUsersToRooms(@RequestBody List<UserToRoom> userToRooms) {
+        if (userToRooms == null || userToRooms.isEmpty()) {
+            return ResponseEntity.badRequest().body("No users to move");
+        }
+        try {
+            int moved = userToRoomService.moveUsersToRooms(userToRooms);
+            return ResponseEntity.ok().body(moved);
+        } catch (Exception e) {
+            logger.error("Exception moving {} user(s) to rooms", userToRooms.size(), e);
+            return ResponseEntity.badRequest().body("Failed to move users to rooms");
+        }
+    }
+
     /**
      * 從房間中移除使用者。
      *
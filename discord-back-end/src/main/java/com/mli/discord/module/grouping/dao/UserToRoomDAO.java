@@ -2,6 +2,8 @@ package com.mli.discord.module.grouping.dao;
 
 import java.util.List;
 
+import org.apache.ibatis.annotations.Param;
+
 import com.mli.discord.module.grouping.model.UserToRoom;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -74,4 +76,28 @@ public interface UserToRoomDAO {
     @Operation(summary = "根據用戶名刪除所有與該用戶有關的房間記錄")
     Integer deleteAllUserEntriesByUsername(String username);
 
-}
\ No newline at end of file
+    /**
+     * 選擇所有用戶與房間的關係，供啟動時建立成員索引。
+     * 
+     * @return 返回所有用戶與房間關係的列表
+     */
+    List<UserToRoom> selectAllUserToRooms();
+
+    /**
+     * 以單一 MERGE 語句將用戶移至房間：已有房間時更新為新房間，否則新增。
+     * 
+     * @param userToRoom 用戶與房間關係對象
+     * @return 返回受影響的行數
+     */
+    @Operation(summary = "將用戶移至房間")
+    Integer moveUserToRoom(UserToRoom userToRoom);
+
+    /**
+     * 以單一 MERGE 語句批次將多個用戶移至各自的房間，用戶名不可重複。
+     * 
+     * @param userToRooms 用戶與房間關係列表，最多 1000 筆
+     * @return 返回受影響的行數
+     */
+    @Operation(summary = "批次將用戶移至房間")
+    Integer moveUsersToRooms(@Param("userToRooms") List<UserToRoom> userToRooms);
+}
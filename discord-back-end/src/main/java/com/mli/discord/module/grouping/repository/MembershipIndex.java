@@ -0,0 +1,197 @@
+package com.mli.discord.module.grouping.repository;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 使用者與房間的雙向成員索引。
+ * 同時維護 容器ID → 成員 與 成員 → 容器ID 兩個對應，值為不可變集合，寫入時以新集合替換 (copy-on-write)，
+ * 讀取不需加鎖；寫入彼此互斥以保持兩個對應一致。
+ * 在交易中呼叫的寫入於提交後才套用，避免回滾的變更出現在索引中。
+ *
+ * @Author D3031104
+ * @version 1.0
+ */
+public class MembershipIndex {
+    private final ConcurrentHashMap<Integer, Set<String>> membersByContainer = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<Integer>> containersByMember = new ConcurrentHashMap<>();
+
+    /**
+     * 以資料庫的全部關聯重建索引。
+     *
+     * @param rows      關聯列
+     * @param member    取得成員名稱
+     * @param container 取得容器ID
+     * @param <T>       關聯實體型別
+     */
+    public synchronized <T> void load(Iterable<T> rows, Function<T, String> member, ToIntFunction<T> container) {
+        Map<Integer, Set<String>> members = new HashMap<>();
+        Map<String, Set<Integer>> containers = new HashMap<>();
+        for (T row : rows) {
+            String username = member.apply(row);
+            int containerId = container.applyAsInt(row);
+            members.computeIfAbsent(containerId, k -> new HashSet<>()).add(username);
+            containers.computeIfAbsent(username, k -> new HashSet<>()).add(containerId);
+        }
+        membersByContainer.clear();
+        containersByMember.clear();
+        members.forEach((k, v) -> membersByContainer.put(k, Collections.unmodifiableSet(v)));
+        containers.forEach((k, v) -> containersByMember.put(k, Collections.unmodifiableSet(v)));
+    }
+
+    /**
+     * 新增成員關係。
+     *
+     * @param username    成員名稱
+     * @param containerId 容器ID
+     */
+    public void add(String username, int containerId) {
+        afterCommit(() -> {
+            synchronized (this) {
+                membersByContainer.compute(containerId, (k, v) -> with(v, username));
+                containersByMember.compute(username, (k, v) -> with(v, containerId));
+            }
+        });
+    }
+
+    /**
+     * 移除成員關係。
+     *
+     * @param username    成員名稱
+     * @param containerId 容器ID
+     */
+    public void remove(String username, int containerId) {
+        afterCommit(() -> {
+            synchronized (this) {
+                membersByContainer.computeIfPresent(containerId, (k, v) -> without(v, username));
+                containersByMember.computeIfPresent(username, (k, v) -> without(v, containerId));
+            }
+        });
+    }
+
+    /**
+     * 移除成員的所有關係。
+     *
+     * @param username 成員名稱
+     */
+    public void removeMember(String username) {
+        afterCommit(() -> {
+            synchronized (this) {
+                Set<Integer> containers = containersByMember.remove(username);
+                if (containers != null) {
+                    for (Integer containerId : containers) {
+                        membersByContainer.computeIfPresent(containerId, (k, v) -> without(v, username));
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * 將成員移至單一容器：移除其他所有關係後新增，兩者一次套用。
+     *
+     * @param username    成員名稱
+     * @param containerId 容器ID
+     */
+    public void move(String username, int containerId) {
+        afterCommit(() -> {
+            synchronized (this) {
+                Set<Integer> containers = containersByMember.get(username);
+                if (containers != null) {
+                    for (Integer previous : containers) {
+                        if (previous != containerId) {
+                            membersByContainer.computeIfPresent(previous, (k, v) -> without(v, username));
+                        }
+                    }
+                }
+                membersByContainer.compute(containerId, (k, v) -> with(v, username));
+                containersByMember.put(username, Collections.singleton(containerId));
+            }
+        });
+    }
+
+    /**
+     * 取得容器的所有成員。
+     *
+     * @param containerId 容器ID
+     * @return 不可變的成員集合，無成員時為空集合
+     */
+    public Set<String> members(int containerId) {
+        return membersByContainer.getOrDefault(containerId, Collections.emptySet());
+    }
+
+    /**
+     * 取得成員所屬的所有容器。
+     *
+     * @param username 成員名稱
+     * @return 不可變的容器ID集合，無所屬容器時為空集合
+     */
+    public Set<Integer> containers(String username) {
+        return containersByMember.getOrDefault(username, Collections.emptySet());
+    }
+
+    /**
+     * 判斷是否為容器的成員。
+     *
+     * @param username    成員名稱
+     * @param containerId 容器ID
+     * @return 是成員返回 true
+     */
+    public boolean isMember(String username, int containerId) {
+        return username != null && members(containerId).contains(username);
+    }
+
+    /**
+     * 目前的成員關係總數。
+     *
+     * @return 成員關係數
+     */
+    public int size() {
+        int size = 0;
+        for (Set<Integer> containers : containersByMember.values()) {
+            size += containers.size();
+        }
+        return size;
+    }
+
+    private static <E> Set<E> with(Set<E> current, E element) {
+        if (current != null && current.contains(element)) {
+            return current;
+        }
+        Set<E> copy = current == null ? new HashSet<>() : new HashSet<>(current);
+        copy.add(element);
+        return Collections.unmodifiableSet(copy);
+    }
+
+    private static <E> Set<E> without(Set<E> current, E element) {
+        if (!current.contains(element)) {
+            return current;
+        }
+        Set<E> copy = new HashSet<>(current);
+        copy.remove(element);
+        // 返回 null 使 compute 移除空的項目
+        return copy.isEmpty() ? null : Collections.unmodifiableSet(copy);
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+}
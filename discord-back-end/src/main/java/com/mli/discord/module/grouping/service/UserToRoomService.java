@@ -1,18 +1,31 @@
 package com.mli.discord.module.grouping.service;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.mli.discord.module.grouping.dao.UserToRoomDAO;
 import com.mli.discord.module.grouping.model.UserToRoom;
+import com.mli.discord.module.grouping.repository.MembershipIndex;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 /**
  * 使用者與房間服務。
+ * 成員關係於啟動時載入記憶體中的 MembershipIndex，查詢直接讀取索引，新增與移除時同步更新。
  * 
  * @Author D3031104
  * @version 1.0
@@ -20,29 +33,70 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 @Tag(name = "使用者與房間服務", description = "使用者與房間相關操作")
 @Service
 public class UserToRoomService {
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    /** SQL Server 單一語句最多 2100 個參數，每筆佔 2 個 */
+    private static final int MAX_ROWS_PER_MERGE = 1000;
+
     @Autowired
     private UserToRoomDAO userToRoomDAO;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final MembershipIndex roomMembership = new MembershipIndex();
+
+    @PostConstruct
+    public void init() {
+        List<UserToRoom> rows = userToRoomDAO.selectAllUserToRooms();
+        roomMembership.load(rows, UserToRoom::getUsername, UserToRoom::getRoomId);
+        Gauge.builder("discord.membership.size", roomMembership, MembershipIndex::size).tag("type", "room")
+                .register(meterRegistry);
+        logger.info("Loaded {} user-to-room membership(s)", rows.size());
+    }
 
     /**
-     * 添加使用者到房間。
+     * 添加使用者到房間。使用者已在其他房間時，以單一 MERGE 語句原子地移至新房間。
      * 
      * @param newUserToRoom 新使用者與房間關聯實體
      * @return 添加的使用者與房間關聯實體數量
      */
     @Operation(summary = "添加使用者到房間")
+    @Transactional
     public Integer addUserToRoom(UserToRoom newUserToRoom) {
-        // 首先，检查用户是否已在其他房间中
-        List<UserToRoom> existingRooms = getRoomsByUsername(newUserToRoom.getUsername());
-
-        // 如果用户已经在一个或多个房间中，从这些房间中移除他们
-        if (!existingRooms.isEmpty()) {
-            for (UserToRoom existingRoom : existingRooms) {
-                userToRoomDAO.deleteUserFromRoom(existingRoom);
-            }
+        Integer moved = userToRoomDAO.moveUserToRoom(newUserToRoom);
+        if (moved != null && moved > 0) {
+            roomMembership.move(newUserToRoom.getUsername(), newUserToRoom.getRoomId());
+        }
+        return moved;
+    }
+
+    /**
+     * 批次將多個使用者移至各自的房間，供管理工具使用。
+     * 同一使用者出現多次時以最後一筆為準；全部在同一交易中完成。
+     * 
+     * @param userToRooms 使用者與房間關聯列表
+     * @return 移動的使用者數量
+     */
+    @Operation(summary = "批次將使用者移至房間")
+    @Transactional
+    public Integer moveUsersToRooms(List<UserToRoom> userToRooms) {
+        // MERGE 的來源列不可對應到同一目標列，先依使用者名稱去重
+        Map<String, UserToRoom> byUsername = new LinkedHashMap<>();
+        for (UserToRoom userToRoom : userToRooms) {
+            byUsername.put(userToRoom.getUsername(), userToRoom);
         }
+        List<UserToRoom> distinct = new ArrayList<>(byUsername.values());
 
-        // 然后，将用户加入新房间
-        return userToRoomDAO.insertUserToRoom(newUserToRoom);
+        int moved = 0;
+        for (int from = 0; from < distinct.size(); from += MAX_ROWS_PER_MERGE) {
+            List<UserToRoom> chunk = distinct.subList(from, Math.min(from + MAX_ROWS_PER_MERGE, distinct.size()));
+            moved += userToRoomDAO.moveUsersToRooms(chunk);
+        }
+        for (UserToRoom userToRoom : distinct) {
+            roomMembership.move(userToRoom.getUsername(), userToRoom.getRoomId());
+        }
+        logger.info("Moved {} user(s) to rooms", moved);
+        return moved;
     }
 
     /**
@@ -53,7 +107,11 @@ public class UserToRoomService {
      */
     @Operation(summary = "從房間中移除使用者")
     public Integer removeUserFromRoom(UserToRoom userToRoom) {
-        return userToRoomDAO.deleteUserFromRoom(userToRoom);
+        Integer removed = userToRoomDAO.deleteUserFromRoom(userToRoom);
+        if (removed != null && removed > 0) {
+            roomMembership.remove(userToRoom.getUsername(), userToRoom.getRoomId());
+        }
+        return removed;
     }
 
     /**
@@ -64,7 +122,9 @@ public class UserToRoomService {
      */
     @Operation(summary = "根據房間ID獲取所有使用者與房間的關聯")
     public List<UserToRoom> getAllUserToRooms(Integer roomId) {
-        return userToRoomDAO.selectUsersByRoomId(roomId);
+        return roomMembership.members(roomId).stream()
+                .map(username -> new UserToRoom(username, roomId))
+                .collect(Collectors.toList());
     }
 
     /**
@@ -75,7 +135,20 @@ public class UserToRoomService {
      */
     @Operation(summary = "根據使用者名稱獲取所有與之相關的房間")
     public List<UserToRoom> getRoomsByUsername(String username) {
-        return userToRoomDAO.selectRoomsByUsername(username);
+        return roomMembership.containers(username).stream()
+                .map(roomId -> new UserToRoom(username, roomId))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 檢查使用者是否在指定房間中，供授權檢查使用。
+     * 
+     * @param username 使用者名稱
+     * @param roomId   房間ID
+     * @return 在房間中返回 true
+     */
+    public boolean isUserInRoom(String username, int roomId) {
+        return roomMembership.isMember(username, roomId);
     }
 
     /**
@@ -86,7 +159,9 @@ public class UserToRoomService {
      */
     @Operation(summary = "根據使用者名稱刪除所有使用者與房間的關聯")
     public Integer deleteAllUserEntriesByUsername(String username) {
-        return userToRoomDAO.deleteAllUserEntriesByUsername(username);
+        Integer deleted = userToRoomDAO.deleteAllUserEntriesByUsername(username);
+        roomMembership.removeMember(username);
+        return deleted;
     }
 
     // /**
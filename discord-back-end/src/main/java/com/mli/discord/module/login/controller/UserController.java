@@ -26,6 +26,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.mli.discord.core.exception.PasswordHashRejectedException;
 import com.mli.discord.module.login.dao.UserRepository;
 import com.mli.discord.module.login.dto.AuthenticationResponse;
 import com.mli.discord.module.login.dto.LoginDTO;
@@ -73,7 +74,7 @@ public class UserController {
      */
     @PostMapping("/login")
     @Operation(summary = "User login")
-    public ResponseEntity<AuthenticationResponse> login(@RequestBody LoginDTO loginDTO, HttpServletRequest request) {
+    public ResponseEntity<AuthenticationResponse> login(@RequestBody LoginDTO loginDTO) {
         logger.info("Trying to login via UserController");
         try {
             logger.info("starting login process");
@@ -84,23 +85,16 @@ public class UserController {
             logger.info("setAuthentication completed");
 
             // Assuming userService.processSuccessfulAuthentication handles JWT creation
-            ResponseEntity<AuthenticationResponse> response = userService
-                    .processSuccessfulAuthentication(loginDTO.getUsername());
-
-            // Set session attributes if authentication is successful
-            HttpSession session = request.getSession(true);
-            session.setAttribute("username", authentication.getName());
-            session.setAttribute("authorities", authentication.getAuthorities().stream()
-                    .map(GrantedAuthority::getAuthority)
-                    .collect(Collectors.joining(",")));
-
-            logger.info("Session ID created: " + session.getId());
-
-            return response;
+            // 不建立HTTP會話，後續請求與STOMP連線皆以JWT驗證
+            return userService.processSuccessfulAuthentication(loginDTO.getUsername());
         } catch (AuthenticationException e) {
             logger.error("Login failed: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(new AuthenticationResponse("Login Failed: " + e.getMessage(), null));
+        } catch (PasswordHashRejectedException e) {
+            logger.warn("Login rejected: " + e.getMessage());
+            return ResponseEntity.status(e.getHttpStatus())
+                    .body(new AuthenticationResponse("Login Failed: " + e.getMessage(), null));
         }
     }
 
@@ -172,8 +166,13 @@ public class UserController {
     @PostMapping("/register")
     @Operation(summary = "註冊使用者")
     public ResponseEntity<?> registerUser(@RequestBody RegisterDTO registerDTO) {
-        int result = userRepository.createUser(registerDTO.getUsername(), registerDTO.getPassword(),
-                registerDTO.getBirthday(), registerDTO.getInterests());
+        int result;
+        try {
+            result = userRepository.createUser(registerDTO.getUsername(), registerDTO.getPassword(),
+                    registerDTO.getBirthday(), registerDTO.getInterests());
+        } catch (PasswordHashRejectedException e) {
+            return ResponseEntity.status(e.getHttpStatus()).body(e.getMessage());
+        }
 
         if (result == 1) {
             return ResponseEntity.ok("使用者成功註冊");
@@ -191,7 +190,12 @@ public class UserController {
     @PostMapping("/update-password")
     @Operation(summary = "更新使用者密碼")
     public ResponseEntity<?> updatePassword(@RequestBody LoginDTO loginDTO) {
-        boolean updated = userService.updatePassword(loginDTO.getUsername(), loginDTO.getPassword());
+        boolean updated;
+        try {
+            updated = userService.updatePassword(loginDTO.getUsername(), loginDTO.getPassword());
+        } catch (PasswordHashRejectedException e) {
+            return ResponseEntity.status(e.getHttpStatus()).body(e.getMessage());
+        }
         if (updated) {
             return ResponseEntity.ok().body("密碼更新成功");
         } else {
@@ -0,0 +1,39 @@
+package com.mli.discord.module.login.dao;
+
+import java.util.Date;
+import java.util.List;
+
+import org.apache.ibatis.annotations.Param;
+
+import com.mli.discord.module.login.model.JwtToken;
+
+/**
+ * JWT 撤銷清單 DAO MyBatis Mapper
+ * 
+ * @Author D3031104
+ * @version 1.0
+ */
+public interface JwtRevocationDAO {
+    /**
+     * 新增撤銷記錄，只使用 jti、sub 與 exp。
+     * 
+     * @param jwtToken 被撤銷的令牌
+     */
+    void insertRevocation(JwtToken jwtToken);
+
+    /**
+     * 查詢尚未過期的撤銷記錄，用於啟動時重建記憶體中的撤銷清單。
+     * 
+     * @param now 目前時間
+     * @return 撤銷記錄列表
+     */
+    List<JwtToken> findActiveRevocations(@Param("now") Date now);
+
+    /**
+     * 查詢令牌是否已被撤銷。
+     * 
+     * @param jti 令牌ID
+     * @return 撤銷記錄筆數
+     */
+    int countByJti(@Param("jti") String jti);
+}
@@ -1,11 +1,47 @@
 package com.mli.discord.module.login.dao;
 
 import com.mli.discord.module.login.model.JwtToken;
+
+import java.util.Date;
 import java.util.List;
 
+import org.apache.ibatis.annotations.Param;
+
 public interface JwtTokenDAO {
     void insertJwtToken(JwtToken jwtToken);
 
-    List<JwtToken> findAll();
+    /**
+     * 以單一多筆 INSERT 批次寫入令牌記錄。
+     *
+     * @param jwtTokens 令牌記錄，最多 300 筆
+     */
+    void insertJwtTokens(@Param("jwtTokens") List<JwtToken> jwtTokens);
+
+    /**
+     * 依ID分頁查詢令牌記錄 (keyset)，取代一次讀取整張表。
+     *
+     * @param afterId 上一頁最後一筆的ID，第一頁傳 null
+     * @param limit   筆數
+     * @return 令牌記錄列表，依ID由小到大排序
+     */
+    List<JwtToken> findPage(@Param("afterId") Integer afterId, @Param("limit") int limit);
+
+    /**
+     * 刪除一批過期時間早於 cutoff 的令牌記錄。
+     *
+     * @param cutoff    過期時間上限
+     * @param batchSize 單批次最多刪除的筆數
+     * @return 刪除的筆數
+     */
+    int deleteExpiredBatch(@Param("cutoff") Date cutoff, @Param("batchSize") int batchSize);
+
+    /**
+     * 刪除一批過期時間早於 cutoff 的撤銷記錄；過期的令牌已無法通過驗證，撤銷記錄不再需要。
+     *
+     * @param cutoff    過期時間上限
+     * @param batchSize 單批次最多刪除的筆數
+     * @return 刪除的筆數
+     */
+    int deleteExpiredRevocationBatch(@Param("cutoff") Date cutoff, @Param("batchSize") int batchSize);
 
-}
\ No newline at end of file
+}
@@ -20,6 +20,8 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import com.mli.discord.module.login.service.JwtService;
 
+import io.jsonwebtoken.Claims;
+
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 
@@ -67,35 +69,32 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
         final String jwt = authHeader.substring(7);
-        final String username = jwtService.extractUsername(jwt);
-
-        logger.debug("JwtAuthenticationFilter: Checking for Authorization header");
 
-        // 以下條件為沒有攜帶Token的請求
-        // 如果未攜帶JWT令牌或令牌不以"Bearer "開頭，則直接呼叫filterChain.doFilter，繼續處理下一個過濾器或請求處理程序。
+        // 簽名與有效期限只驗證一次，之後直接使用解析出的Claims
+        final Claims claims = jwtService.validateToken(jwt);
+        if (claims == null) {
+            logger.debug("JwtAuthenticationFilter: Token is invalid");
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+        final String username = claims.getSubject();
 
         logger.debug("JwtAuthenticationFilter: Extracted Username: {}", username);
 
         // 如果用戶名不為null且當前的Security上下文中不存在身份驗證
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             UserDetails userDetails = this.userDetailsService.loadUserByUsername(username); // 使用UserDetailsService根據用戶名加載用戶詳細信息。
-            if (jwtService.isTokenValid(jwt, userDetails)) {
-                logger.debug("JwtAuthenticationFilter: Token is valid");
+            logger.debug("JwtAuthenticationFilter: Token is valid");
 
-                // 如果JWT令牌有效，則創建一個UsernamePasswordAuthenticationToken並將其設置到Spring
-                // Security的Security上下文中，以確保用戶已成功驗證。
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities());
-                authToken.setDetails(
-                        new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            } else {
-                logger.debug("JwtAuthenticationFilter: Token is invalid");
-                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                return;
-            }
+            // 如果JWT令牌有效，則創建一個UsernamePasswordAuthenticationToken並將其設置到Spring
+            // Security的Security上下文中，以確保用戶已成功驗證。
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    userDetails,
+                    null,
+                    userDetails.getAuthorities());
+            authToken.setDetails(
+                    new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
         filterChain.doFilter(request, response);
     }
@@ -0,0 +1,66 @@
+package com.mli.discord.module.login.model;
+
+import java.security.Principal;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * STOMP 會話的不可變身份。
+ * 於 CONNECT 時以 JWT 驗證後建立一次，綁定到 WebSocket 會話，之後的每個幀直接使用，不再查詢安全上下文。
+ *
+ * @Author D3031104
+ * @version 1.0
+ */
+public final class StompPrincipal implements Principal {
+    private final String username;
+    private final Set<String> authorities;
+
+    public StompPrincipal(String username, Collection<? extends GrantedAuthority> authorities) {
+        this.username = Objects.requireNonNull(username, "username");
+        Set<String> names = new LinkedHashSet<>();
+        for (GrantedAuthority authority : authorities) {
+            names.add(authority.getAuthority());
+        }
+        this.authorities = Collections.unmodifiableSet(names);
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    public Set<String> getAuthorities() {
+        return authorities;
+    }
+
+    public boolean hasAuthority(String authority) {
+        return authorities.contains(authority);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof StompPrincipal)) {
+            return false;
+        }
+        StompPrincipal that = (StompPrincipal) o;
+        return username.equals(that.username) && authorities.equals(that.authorities);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(username, authorities);
+    }
+
+    @Override
+    public String toString() {
+        return "StompPrincipal{username='" + username + "', authorities=" + authorities + "}";
+    }
+}
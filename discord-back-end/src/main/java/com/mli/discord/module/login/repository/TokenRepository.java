@@ -1,46 +1,214 @@
 package com.mli.discord.module.login.repository;
 
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Repository;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
 /**
  * TokenRepository 管理用戶的認證令牌。
- * 提供方法來存儲、檢查和移除令牌。
- * 
+ * 以 jti 為鍵保存令牌與其過期時間，過期的項目由時間輪（timing wheel）回收：
+ * 每個刻度只處理一個槽，新增與檢查皆為 O(1)，檢查不需加鎖。
+ * 項目總數有上限，達到上限時拒絕新增。
+ *
  * @author D3031104
  * @version 1.0
  */
 @Repository
 public class TokenRepository {
-    private final ConcurrentHashMap<String, String> tokenStore = new ConcurrentHashMap<>();
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${discord.security.token-store.max-size:100000}")
+    private int maxSize;
+    @Value("${discord.security.token-store.tick-ms:1000}")
+    private long tickMillis;
+    @Value("${discord.security.token-store.wheel-size:3600}")
+    private int wheelSize;
+
+    private final ConcurrentHashMap<String, Entry> tokenStore = new ConcurrentHashMap<>();
+
+    /** 時間輪，每個槽保存在該刻度（或之後的整圈）到期的項目 */
+    private Queue<Entry>[] wheel;
+    /** 下一個要處理的刻度，只由回收執行緒存取 */
+    private long nextTick;
+    private ScheduledExecutorService sweeper;
+
+    private Counter evictionCounter;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    @SuppressWarnings("unchecked")
+    public void init() {
+        wheel = new Queue[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        nextTick = System.currentTimeMillis() / tickMillis;
+
+        Gauge.builder("discord.tokens.store.size", tokenStore, Map::size).register(meterRegistry);
+        evictionCounter = Counter.builder("discord.tokens.store.evictions").register(meterRegistry);
+        rejectedCounter = Counter.builder("discord.tokens.store.rejected").register(meterRegistry);
+
+        sweeper = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("token-store-sweeper-"));
+        sweeper.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
 
     /**
-     * 將令牌和相關聯的用戶名存儲在存儲庫中。
-     * 
-     * @param token    令牌字符串
-     * @param username 與令牌關聯的用戶名
+     * 存儲令牌，保存到令牌過期為止。
+     *
+     * @param jti       令牌ID
+     * @param username  與令牌關聯的用戶名
+     * @param expiresAt 令牌過期時間 (epoch ms)
+     * @return 成功存儲返回 true；已過期或存儲庫已滿時返回 false
      */
-    public void storeToken(String token, String username) {
-        tokenStore.put(token, username);
+    public boolean storeToken(String jti, String username, long expiresAt) {
+        if (expiresAt <= System.currentTimeMillis()) {
+            return false;
+        }
+        if (tokenStore.size() >= maxSize && !tokenStore.containsKey(jti)) {
+            rejectedCounter.increment();
+            logger.warn("Token store is full ({} entries), rejecting JTI: {}", maxSize, jti);
+            return false;
+        }
+        Entry entry = new Entry(jti, username, expiresAt);
+        tokenStore.put(jti, entry);
+        wheel[(int) (tickOf(expiresAt) % wheelSize)].add(entry);
+        return true;
     }
 
     /**
-     * 檢查指定的令牌是否存在於存儲庫中。
-     * 
-     * @param token 要檢查的令牌字符串
+     * 檢查指定的令牌是否存在於存儲庫中且尚未過期。
+     *
+     * @param jti 令牌ID
      * @return boolean 令牌是否存在
      */
-    public boolean isTokenPresent(String token) {
-        return tokenStore.containsKey(token);
+    public boolean isTokenPresent(String jti) {
+        Entry entry = tokenStore.get(jti);
+        return entry != null && entry.expiresAt > System.currentTimeMillis();
+    }
+
+    /**
+     * 取得令牌關聯的用戶名。
+     *
+     * @param jti 令牌ID
+     * @return 用戶名；令牌不存在或已過期時返回 null
+     */
+    public String getUsername(String jti) {
+        Entry entry = tokenStore.get(jti);
+        return entry != null && entry.expiresAt > System.currentTimeMillis() ? entry.username : null;
+    }
+
+    /**
+     * 從存儲庫中移除指定的令牌。時間輪中的項目會在到期刻度時一併丟棄。
+     *
+     * @param jti 令牌ID
+     */
+    public void removeToken(String jti) {
+        tokenStore.remove(jti);
+    }
+
+    /**
+     * 對每個尚未過期的令牌ID執行指定動作。
+     *
+     * @param action 動作
+     */
+    public void forEachToken(Consumer<String> action) {
+        long now = System.currentTimeMillis();
+        tokenStore.forEach((jti, entry) -> {
+            if (entry.expiresAt > now) {
+                action.accept(jti);
+            }
+        });
+    }
+
+    /**
+     * 取得目前存儲的令牌數。
+     *
+     * @return 令牌數
+     */
+    public int size() {
+        return tokenStore.size();
     }
 
     /**
-     * 從存儲庫中移除指定的令牌。
-     * 
-     * @param token 要移除的令牌字符串
+     * 處理從上次到現在已完整經過的每個刻度。
+     * 項目的刻度以過期時間無條件進位計算，因此處理到該刻度時項目必定已過期，
+     * 而新增的項目刻度必定大於目前已處理的刻度。
      */
-    public void removeToken(String token) {
-        tokenStore.remove(token);
+    private void advance() {
+        try {
+            long currentTick = System.currentTimeMillis() / tickMillis;
+            while (nextTick <= currentTick) {
+                expire(wheel[(int) (nextTick % wheelSize)], nextTick);
+                nextTick++;
+            }
+        } catch (Exception e) {
+            // 例外會使排程停止，記錄後繼續
+            logger.error("Token store sweep failed", e);
+        }
+    }
+
+    /**
+     * 回收槽中已到期的項目；超過一圈才到期的項目留在槽中等下一圈。
+     */
+    private void expire(Queue<Entry> slot, long tick) {
+        int evicted = 0;
+        for (Iterator<Entry> it = slot.iterator(); it.hasNext();) {
+            Entry entry = it.next();
+            if (tickOf(entry.expiresAt) <= tick) {
+                it.remove();
+                if (tokenStore.remove(entry.jti, entry)) {
+                    evicted++;
+                }
+            }
+        }
+        if (evicted > 0) {
+            evictionCounter.increment(evicted);
+            logger.debug("Evicted {} expired token(s)", evicted);
+        }
+    }
+
+    private long tickOf(long epochMillis) {
+        // 無條件進位，確保項目不會在過期前被回收
+        return (epochMillis + tickMillis - 1) / tickMillis;
+    }
+
+    private static final class Entry {
+        private final String jti;
+        private final String username;
+        private final long expiresAt;
+
+        Entry(String jti, String username, long expiresAt) {
+            this.jti = jti;
+            this.username = username;
+            this.expiresAt = expiresAt;
+        }
     }
-}
\ No newline at end of file
+}
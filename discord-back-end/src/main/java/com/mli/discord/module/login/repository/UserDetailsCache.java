@@ -0,0 +1,176 @@
+package com.mli.discord.module.login.repository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * UserDetailsCache 快取每位使用者的身分與權限，避免每個帶有JWT的請求都查詢資料庫。
+ * 項目在有效期限後重新載入；同一使用者同時未命中時只會有一個請求查詢資料庫，其餘等待同一結果。
+ * 密碼、使用者資料或權限變更時須呼叫 invalidate。
+ *
+ * @author D3031104
+ * @version 1.0
+ */
+@Repository
+public class UserDetailsCache {
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    /** 超過上限時淘汰到上限的此比例 */
+    private static final double LOW_WATER_RATIO = 0.9;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${discord.security.user-cache.ttl-ms:60000}")
+    private long ttlMillis;
+    @Value("${discord.security.user-cache.max-size:10000}")
+    private int maxSize;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Object evictionLock = new Object();
+
+    private Counter hitCounter;
+    private Counter missCounter;
+
+    @PostConstruct
+    public void init() {
+        hitCounter = Counter.builder("discord.security.user-cache.hits").register(meterRegistry);
+        missCounter = Counter.builder("discord.security.user-cache.misses").register(meterRegistry);
+        Gauge.builder("discord.security.user-cache.size", entries, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * 取得使用者的身分與權限，未命中或已過期時以 loader 載入。
+     *
+     * @param username 用戶名
+     * @param loader   由資料庫載入使用者的函數
+     * @return 使用者詳情
+     */
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(username);
+        if (entry != null && !entry.isExpired(now)) {
+            hitCounter.increment();
+            return join(entry);
+        }
+
+        Entry loading = new Entry(now + ttlMillis);
+        boolean owner = entry == null ? entries.putIfAbsent(username, loading) == null
+                : entries.replace(username, entry, loading);
+        if (!owner) {
+            // 其他請求正在載入或已載入，等待同一結果
+            Entry current = entries.get(username);
+            if (current != null) {
+                hitCounter.increment();
+                return join(current);
+            }
+            return loader.apply(username);
+        }
+
+        missCounter.increment();
+        try {
+            UserDetails userDetails = loader.apply(username);
+            loading.future.complete(userDetails);
+            evictIfFull(now);
+            return userDetails;
+        } catch (RuntimeException e) {
+            // 查無使用者等錯誤不快取
+            entries.remove(username, loading);
+            loading.future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * 移除使用者的快取。在交易中呼叫時，提交後會再移除一次，
+     * 避免提交前並行的請求重新載入舊資料。
+     *
+     * @param username 用戶名
+     */
+    public void invalidate(String username) {
+        entries.remove(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    entries.remove(username);
+                }
+            });
+        }
+        logger.debug("Invalidated cached user details for {}", username);
+    }
+
+    /**
+     * 超過筆數上限時先移除過期項目，仍超過則依載入先後移除最舊的項目，
+     * 一次降到上限的九成，避免之後每次載入都要重新排序。
+     */
+    private void evictIfFull(long now) {
+        if (entries.size() <= maxSize) {
+            return;
+        }
+        synchronized (evictionLock) {
+            if (entries.size() <= maxSize) {
+                return;
+            }
+            entries.values().removeIf(cached -> cached.isExpired(now));
+            int lowWater = (int) (maxSize * LOW_WATER_RATIO);
+            int excess = entries.size() - lowWater;
+            if (excess <= 0 || entries.size() <= maxSize) {
+                return;
+            }
+            List<Map.Entry<String, Entry>> oldest = new ArrayList<>(entries.entrySet());
+            oldest.sort(Comparator.comparingLong(cached -> cached.getValue().expiresAt));
+            for (int i = 0; i < excess && i < oldest.size(); i++) {
+                Map.Entry<String, Entry> cached = oldest.get(i);
+                // 只移除排序時的同一項目，期間重新載入的項目保留
+                entries.remove(cached.getKey(), cached.getValue());
+            }
+            logger.info("User details cache exceeded {} entries, evicted {} oldest", maxSize, excess);
+        }
+    }
+
+    private static UserDetails join(Entry entry) {
+        try {
+            return entry.future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static final class Entry {
+        private final CompletableFuture<UserDetails> future = new CompletableFuture<>();
+        private final long expiresAt;
+
+        Entry(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
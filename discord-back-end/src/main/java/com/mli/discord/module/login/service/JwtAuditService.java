@@ -0,0 +1,126 @@
+package com.mli.discord.module.login.service;
+
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.mli.discord.core.util.WriteBehindQueue;
+import com.mli.discord.module.login.dao.JwtTokenDAO;
+import com.mli.discord.module.login.model.JwtToken;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * JWT 簽發稽核記錄的寫後服務。
+ * 登入、換發與登出時只將記錄放入有界佇列，由背景執行緒以多筆 INSERT 批次寫入 jwt_tokens，
+ * 使登入延遲只取決於密碼驗證與令牌簽名。
+ *
+ * @Author D3031104
+ * @version 1.0
+ */
+@Service
+public class JwtAuditService {
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    /** SQL Server 單一語句最多 2100 個參數，每筆記錄佔 6 個 */
+    private static final int MAX_ROWS_PER_INSERT = 300;
+
+    /**
+     * 佇列已滿時的處理方式
+     */
+    public enum SaturationPolicy {
+        /** 不等待，直接捨棄記錄並計入 dropped */
+        DROP,
+        /** 最多等待 offer-timeout-ms，逾時改為在呼叫端執行緒同步寫入 */
+        BLOCK
+    }
+
+    @Autowired
+    private JwtTokenDAO jwtTokenDAO;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${discord.jwt.audit.capacity:10000}")
+    private int capacity;
+    @Value("${discord.jwt.audit.batch-size:200}")
+    private int batchSize;
+    @Value("${discord.jwt.audit.flush-interval-ms:200}")
+    private long flushIntervalMs;
+    @Value("${discord.jwt.audit.offer-timeout-ms:50}")
+    private long offerTimeoutMs;
+    @Value("${discord.jwt.audit.saturation-policy:BLOCK}")
+    private SaturationPolicy saturationPolicy;
+
+    private WriteBehindQueue<JwtToken> queue;
+    private Counter droppedCounter;
+
+    @PostConstruct
+    public void init() {
+        queue = new WriteBehindQueue<>("discord.jwt.audit", capacity, Math.min(batchSize, MAX_ROWS_PER_INSERT),
+                flushIntervalMs, saturationPolicy == SaturationPolicy.DROP ? 0 : offerTimeoutMs, this::flush,
+                meterRegistry);
+        droppedCounter = Counter.builder("discord.jwt.audit.dropped").register(meterRegistry);
+        queue.start();
+    }
+
+    /**
+     * 停止時將佇列中剩餘的記錄全部寫出。
+     */
+    @PreDestroy
+    public void shutdown() {
+        queue.shutdown();
+    }
+
+    /**
+     * 記錄一筆令牌簽發。
+     *
+     * @param jwtToken 令牌資訊
+     */
+    public void record(JwtToken jwtToken) {
+        if (queue.offer(jwtToken)) {
+            return;
+        }
+        if (saturationPolicy == SaturationPolicy.DROP) {
+            droppedCounter.increment();
+            logger.warn("JWT audit queue saturated, dropping record with JTI: {}", jwtToken.getJti());
+            return;
+        }
+        logger.warn("JWT audit queue saturated, inserting record synchronously with JTI: {}", jwtToken.getJti());
+        try {
+            jwtTokenDAO.insertJwtToken(jwtToken);
+        } catch (Exception e) {
+            droppedCounter.increment();
+            logger.error("Failed to insert JWT token with JTI: {}", jwtToken.getJti(), e);
+        }
+    }
+
+    /**
+     * 批次寫入記錄；多筆 INSERT 失敗時逐筆重試，避免單筆錯誤拖累整個批次。
+     *
+     * @param batch 記錄批次
+     */
+    private void flush(List<JwtToken> batch) {
+        try {
+            jwtTokenDAO.insertJwtTokens(batch);
+            logger.debug("Inserted {} JWT audit record(s)", batch.size());
+        } catch (Exception e) {
+            logger.error("Batch insert of {} JWT audit record(s) failed, retrying row by row", batch.size(), e);
+            for (JwtToken jwtToken : batch) {
+                try {
+                    jwtTokenDAO.insertJwtToken(jwtToken);
+                } catch (Exception rowError) {
+                    droppedCounter.increment();
+                    logger.error("Dropping JWT audit record with JTI: {}", jwtToken.getJti(), rowError);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.mli.discord.module.login.service;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.mli.discord.core.util.BloomFilter;
+import com.mli.discord.module.login.dao.JwtRevocationDAO;
+import com.mli.discord.module.login.model.JwtToken;
+import com.mli.discord.module.login.repository.TokenRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * JWT 撤銷服務。
+ * 撤銷的 jti 寫入 jwt_revocations，並加入記憶體中的布隆過濾器與精確集合 (TokenRepository)，
+ * 兩者皆於啟動時由資料庫重建。每個請求先查布隆過濾器，絕大多數未撤銷的令牌不需再查精確集合，也不需 I/O。
+ * 布隆過濾器不支援刪除，定期以精確集合中尚未過期的 jti 重建。
+ *
+ * @Author D3031104
+ * @version 1.0
+ */
+@Service
+public class JwtRevocationService {
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired
+    private JwtRevocationDAO jwtRevocationDAO;
+    @Autowired
+    private TokenRepository tokenRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${discord.jwt.revocation.expected-insertions:100000}")
+    private int expectedInsertions;
+    @Value("${discord.jwt.revocation.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+    @Value("${discord.jwt.revocation.rebuild-interval-ms:600000}")
+    private long rebuildIntervalMs;
+
+    private volatile BloomFilter bloomFilter;
+    /** 精確集合曾因容量上限拒絕新增時，布隆過濾器命中後改查資料庫 */
+    private volatile boolean exactSetOverflowed;
+    private ScheduledExecutorService rebuilder;
+
+    private Counter filterPositiveCounter;
+    private Counter revokedHitCounter;
+
+    @PostConstruct
+    public void init() {
+        filterPositiveCounter = Counter.builder("discord.jwt.revocation.filter-positives").register(meterRegistry);
+        revokedHitCounter = Counter.builder("discord.jwt.revocation.revoked-hits").register(meterRegistry);
+
+        BloomFilter filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+        List<JwtToken> revocations = jwtRevocationDAO.findActiveRevocations(new Date());
+        for (JwtToken revocation : revocations) {
+            remember(filter, revocation.getJti(), revocation.getSub(), revocation.getExp().getTime());
+        }
+        bloomFilter = filter;
+        logger.info("Loaded {} active JWT revocation(s)", revocations.size());
+
+        rebuilder = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("jwt-revocation-"));
+        rebuilder.scheduleWithFixedDelay(this::rebuild, rebuildIntervalMs, rebuildIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    /**
+     * 撤銷令牌，使其在過期前無法再通過驗證。
+     *
+     * @param jti       令牌ID
+     * @param username  令牌的用戶名
+     * @param expiresAt 令牌過期時間
+     */
+    public synchronized void revoke(String jti, String username, Date expiresAt) {
+        JwtToken revocation = new JwtToken();
+        revocation.setJti(jti);
+        revocation.setSub(username);
+        revocation.setExp(expiresAt);
+        jwtRevocationDAO.insertRevocation(revocation);
+        remember(bloomFilter, jti, username, expiresAt.getTime());
+        logger.info("Revoked JWT with JTI: {}", jti);
+    }
+
+    /**
+     * 判斷令牌是否已被撤銷。未撤銷的令牌通常只需查詢布隆過濾器。
+     *
+     * @param jti 令牌ID
+     * @return 已撤銷返回 true
+     */
+    public boolean isRevoked(String jti) {
+        if (!bloomFilter.mightContain(jti)) {
+            return false;
+        }
+        filterPositiveCounter.increment();
+        boolean revoked = tokenRepository.isTokenPresent(jti)
+                || (exactSetOverflowed && jwtRevocationDAO.countByJti(jti) > 0);
+        if (revoked) {
+            revokedHitCounter.increment();
+        }
+        return revoked;
+    }
+
+    /**
+     * 以精確集合中尚未過期的 jti 重建布隆過濾器，移除已過期的項目以維持誤判率。
+     * 與 revoke 互斥，避免重建期間新增的 jti 遺失。
+     */
+    private synchronized void rebuild() {
+        if (exactSetOverflowed) {
+            // 部分撤銷記錄只存在於布隆過濾器與資料庫，重建會遺失它們
+            logger.warn("JWT revocation exact set overflowed, skipping filter rebuild");
+            return;
+        }
+        try {
+            BloomFilter filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+            tokenRepository.forEachToken(filter::put);
+            bloomFilter = filter;
+            logger.debug("Rebuilt JWT revocation filter with {} entr(ies)", tokenRepository.size());
+        } catch (Exception e) {
+            logger.error("Failed to rebuild JWT revocation filter", e);
+        }
+    }
+
+    private void remember(BloomFilter filter, String jti, String username, long expiresAt) {
+        if (!tokenRepository.storeToken(jti, username, expiresAt) && expiresAt > System.currentTimeMillis()) {
+            exactSetOverflowed = true;
+        }
+        filter.put(jti);
+    }
+}
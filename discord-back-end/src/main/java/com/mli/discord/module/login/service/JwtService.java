@@ -5,18 +5,23 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
+import javax.annotation.PostConstruct;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import com.mli.discord.module.login.dao.JwtTokenDAO;
 import com.mli.discord.module.login.model.JwtToken;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -39,10 +44,90 @@ public class JwtService {
 	private Long LOGOUT_EXPIRATION_TIME = 60L * 1; // 單位ms
 
 	@Autowired
-	private JwtTokenDAO jwtTokenDAO;
+	private JwtAuditService jwtAuditService;
+	@Autowired
+	private JwtRevocationService jwtRevocationService;
 	// BASE64編碼的密鑰
 	private String SECRET_KEY = "amazingamazingamazingamazingamazingamazingamazing";
 
+	// 已驗證令牌快取的筆數上限，0 表示不快取
+	@Value("${discord.jwt.validated-cache-size:10000}")
+	private int validatedCacheSize;
+
+	// 簽名密鑰與解析器只建立一次，JwtParser 為不可變物件，可在多執行緒間共用
+	private Key signInKey;
+	private JwtParser jwtParser;
+
+	// 已驗證的令牌 → Claims，保留到令牌過期為止
+	private final ConcurrentHashMap<String, Claims> validatedTokens = new ConcurrentHashMap<>();
+
+	@PostConstruct
+	public void init() {
+		signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+		jwtParser = Jwts.parserBuilder().setSigningKey(signInKey).build();
+	}
+
+	/**
+	 * 驗證JWT令牌的簽名、有效期限與是否已撤銷，只解析一次。
+	 * 通過驗證的令牌會快取到過期為止，同一令牌之後的請求不必再計算簽名；撤銷檢查每次都會執行。
+	 * 
+	 * @param token JWT令牌
+	 * @return 令牌中的Claims；令牌無效、已過期或已撤銷時返回null
+	 */
+	public Claims validateToken(String token) {
+		Claims claims = verifySignatureAndExpiry(token);
+		if (claims == null) {
+			return null;
+		}
+		if (claims.getId() != null && jwtRevocationService.isRevoked(claims.getId())) {
+			logger.debug("Rejected revoked JWT with JTI: {}", claims.getId());
+			return null;
+		}
+		return claims;
+	}
+
+	/**
+	 * 撤銷令牌 (登出時使用)。沒有jti的令牌無法撤銷。
+	 * 
+	 * @param token JWT令牌
+	 * @return 成功撤銷返回True
+	 */
+	public boolean revokeToken(String token) {
+		Claims claims = verifySignatureAndExpiry(token);
+		if (claims == null || claims.getId() == null) {
+			return false;
+		}
+		jwtRevocationService.revoke(claims.getId(), claims.getSubject(), claims.getExpiration());
+		return true;
+	}
+
+	/**
+	 * 驗證簽名與有效期限，通過驗證的令牌快取到過期為止。
+	 */
+	private Claims verifySignatureAndExpiry(String token) {
+		long now = System.currentTimeMillis();
+		Claims claims = validatedTokens.get(token);
+		if (claims != null) {
+			if (!isExpired(claims, now)) {
+				return claims;
+			}
+			validatedTokens.remove(token, claims);
+			return null;
+		}
+		try {
+			claims = extractAllClaims(token);
+		} catch (JwtException | IllegalArgumentException e) {
+			// 過期、簽名不符或格式錯誤
+			logger.debug("Invalid JWT: {}", e.getMessage());
+			return null;
+		}
+		if (isExpired(claims, now)) {
+			return null;
+		}
+		cacheValidated(token, claims, now);
+		return claims;
+	}
+
 	/**
 	 * 從JWT令牌中提取用戶名。
 	 * 
@@ -98,30 +183,33 @@ public class JwtService {
 	 */
 	public boolean isTokenValid(String token, UserDetails userDetails) {
 		logger.debug("isTokenValid; token: {}, userDetails: {}", token, userDetails);
-		final String username = extractUsername(token);
-		return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+		final Claims claims = validateToken(token);
+		return claims != null && userDetails.getUsername().equals(claims.getSubject());
 	}
 
 	/**
-	 * 驗證JWT令牌是否已過期。
+	 * 判斷Claims是否已過期。
 	 * 
-	 * @param token JWT令牌
+	 * @param claims Claims
+	 * @param now    目前時間 (ms)
 	 * @return 如果已過期則返回True，否則返回False
 	 */
-	private boolean isTokenExpired(String token) {
-		final Date expirationDate = extractExpiration(token);
-		// return extractExpiration(token).before(new Date());
-		return expirationDate != null && expirationDate.before(new Date());
+	private boolean isExpired(Claims claims, long now) {
+		final Date expirationDate = claims.getExpiration();
+		return expirationDate != null && expirationDate.getTime() <= now;
 	}
 
 	/**
-	 * 從JWT令牌中提取過期時間。
-	 * 
-	 * @param token JWT令牌
-	 * @return 過期時間
+	 * 快取已驗證的令牌。快取已滿時先清除過期的項目，仍然已滿則不快取。
 	 */
-	private Date extractExpiration(String token) {
-		return extractClaim(token, Claims::getExpiration);
+	private void cacheValidated(String token, Claims claims, long now) {
+		if (validatedTokens.size() >= validatedCacheSize) {
+			validatedTokens.values().removeIf(cached -> isExpired(cached, now));
+			if (validatedTokens.size() >= validatedCacheSize) {
+				return;
+			}
+		}
+		validatedTokens.put(token, claims);
 	}
 
 	/**
@@ -130,7 +218,7 @@ public class JwtService {
 	 * @return 令牌中所有的聲明
 	 */
 	private Claims extractAllClaims(String token) {
-		return Jwts.parserBuilder().setSigningKey(getSignInKey()).build().parseClaimsJws(token).getBody();
+		return jwtParser.parseClaimsJws(token).getBody();
 	}
 
 	/**
@@ -139,13 +227,12 @@ public class JwtService {
 	 * @return 簽名密鑰
 	 */
 	private Key getSignInKey() {
-		byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-		return Keys.hmacShaKeyFor(keyBytes);
+		return signInKey;
 	}
 
 	/**
 	 * 生成並持久化JWT令牌。
-	 * 使用用戶的詳細信息生成JWT令牌，並將令牌資訊存儲到資料庫。
+	 * 使用用戶的詳細信息生成JWT令牌，並將令牌資訊交由JwtAuditService非同步存儲到資料庫。
 	 * 
 	 * @param userDetails 用戶的詳細信息
 	 * @return 生成的JWT令牌
@@ -166,12 +253,8 @@ public class JwtService {
 		jwtToken.setIss("Issuer");
 		jwtToken.setSub(userDetails.getUsername());
 		jwtToken.setTyp("Bearer");
-		try {
-			jwtTokenDAO.insertJwtToken(jwtToken);
-			logger.info("JWT token inserted successfully with JTI: {}", jti);
-		} catch (Exception e) {
-			logger.error("Failed to insert JWT token with JTI: {}", jti, e);
-		}
+		// 稽核記錄由背景執行緒批次寫入，不佔用登入的請求路徑
+		jwtAuditService.record(jwtToken);
 		logger.info("Token generation and persistence completed for user: {}", userDetails.getUsername());
 
 		return token;
@@ -179,7 +262,7 @@ public class JwtService {
 
 	/**
 	 * 生成並持久化登出令牌。
-	 * 使用用戶的詳細信息生成登出用的JWT令牌，並將令牌資訊存儲到資料庫。
+	 * 使用用戶的詳細信息生成登出用的JWT令牌，並將令牌資訊交由JwtAuditService非同步存儲到資料庫。
 	 * 
 	 * @param userDetails 用戶的詳細信息
 	 * @return 生成的登出JWT令牌
@@ -200,12 +283,8 @@ public class JwtService {
 		jwtToken.setIss("Issuer");
 		jwtToken.setSub(userDetails.getUsername());
 		jwtToken.setTyp("Bearer");
-		try {
-			jwtTokenDAO.insertJwtToken(jwtToken);
-			logger.info("JWT token inserted successfully with JTI: {}", jti);
-		} catch (Exception e) {
-			logger.error("Failed to insert JWT token with JTI: {}", jti, e);
-		}
+		// 稽核記錄由背景執行緒批次寫入，不佔用登入的請求路徑
+		jwtAuditService.record(jwtToken);
 		logger.info("Token generation and persistence completed for user: {}", userDetails.getUsername());
 
 		return token;
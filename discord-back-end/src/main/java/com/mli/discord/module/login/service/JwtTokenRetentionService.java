@@ -0,0 +1,116 @@
+package com.mli.discord.module.login.service;
+
+import java.util.Date;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.mli.discord.module.login.dao.JwtTokenDAO;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * JWT 記錄的保留與清除作業。
+ * 定期以小批次 (DELETE TOP (n)) 刪除已過期超過保留期限的 jwt_tokens，以及已過期的 jwt_revocations，
+ * 批次之間暫停，避免長時間持有鎖影響登入時的寫入。
+ *
+ * @Author D3031104
+ * @version 1.0
+ */
+@Service
+public class JwtTokenRetentionService {
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired
+    private JwtTokenDAO jwtTokenDAO;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${discord.jwt.retention.retention-ms:604800000}")
+    private long retentionMs;
+    @Value("${discord.jwt.retention.interval-ms:3600000}")
+    private long intervalMs;
+    @Value("${discord.jwt.retention.batch-size:500}")
+    private int batchSize;
+    @Value("${discord.jwt.retention.pause-ms:200}")
+    private long pauseMs;
+    @Value("${discord.jwt.retention.max-batches-per-run:200}")
+    private int maxBatchesPerRun;
+
+    private ScheduledExecutorService scheduler;
+
+    private Counter tokensPurgedCounter;
+    private Counter revocationsPurgedCounter;
+    private Timer runTimer;
+
+    @PostConstruct
+    public void init() {
+        tokensPurgedCounter = Counter.builder("discord.jwt.retention.purged").tag("table", "jwt_tokens")
+                .register(meterRegistry);
+        revocationsPurgedCounter = Counter.builder("discord.jwt.retention.purged").tag("table", "jwt_revocations")
+                .register(meterRegistry);
+        runTimer = Timer.builder("discord.jwt.retention.run").register(meterRegistry);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("jwt-retention-"));
+        scheduler.scheduleWithFixedDelay(this::purge, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * 執行一次清除。每張表最多刪除 max-batches-per-run 批，剩餘的留到下次執行。
+     */
+    public void purge() {
+        long start = System.nanoTime();
+        try {
+            long now = System.currentTimeMillis();
+            Date tokenCutoff = new Date(now - retentionMs);
+            int tokens = purgeInBatches(() -> jwtTokenDAO.deleteExpiredBatch(tokenCutoff, batchSize));
+            tokensPurgedCounter.increment(tokens);
+
+            Date revocationCutoff = new Date(now);
+            int revocations = purgeInBatches(
+                    () -> jwtTokenDAO.deleteExpiredRevocationBatch(revocationCutoff, batchSize));
+            revocationsPurgedCounter.increment(revocations);
+
+            logger.info("Purged {} expired JWT record(s) and {} revocation(s) in {} ms", tokens, revocations,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // 例外會使排程停止，記錄後等待下次執行
+            logger.error("JWT retention purge failed", e);
+        } finally {
+            runTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private int purgeInBatches(IntSupplier deleteBatch) throws InterruptedException {
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int deleted = deleteBatch.getAsInt();
+            total += deleted;
+            if (deleted < batchSize) {
+                break;
+            }
+            TimeUnit.MILLISECONDS.sleep(pauseMs);
+        }
+        return total;
+    }
+}
@@ -13,15 +13,18 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.mli.discord.core.exception.PasswordHashRejectedException;
 import com.mli.discord.module.login.dao.UserDAO;
 import com.mli.discord.module.login.dto.AuthenticationResponse;
 import com.mli.discord.module.login.model.User;
+import com.mli.discord.module.login.repository.UserDetailsCache;
 
 import io.swagger.v3.oas.annotations.Operation;
 
@@ -33,7 +36,7 @@ import io.swagger.v3.oas.annotations.Operation;
  */
 @Transactional
 @Service
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
     @Autowired
     private PasswordEncoder passwordEncoder;
@@ -42,6 +45,8 @@ public class UserService implements UserDetailsService {
 
     @Autowired
     private UserDAO userDAO;
+    @Autowired
+    private UserDetailsCache userDetailsCache;
 
     /**
      * 處理成功的身份驗證後，生成JWT令牌並返回。
@@ -66,6 +71,7 @@ public class UserService implements UserDetailsService {
      * @throws UsernameNotFoundException 當用戶不存在時拋出
      */
     @Override
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         try {
             User user = userDAO.findByUsername(username)
@@ -146,17 +152,40 @@ public class UserService implements UserDetailsService {
         try {
             boolean updated = userDAO.updatePasswordByUsername(username, passwordEncoder.encode(newPassword)) > 0;
             if (updated) {
+                userDetailsCache.invalidate(username);
                 logger.info("密碼更新成功");
             } else {
                 logger.info("密碼更新失敗");
             }
             return updated;
+        } catch (PasswordHashRejectedException e) {
+            // 交由控制器回應 503
+            throw e;
         } catch (Exception e) {
             logger.error("更新密碼時出現異常: {}", e.getMessage());
             return false;
         }
     }
 
+    /**
+     * 登入成功且已儲存的雜湊需升級（如 BCrypt 強度變更）時，由 DaoAuthenticationProvider 呼叫，
+     * 將以新設定雜湊的密碼寫回資料庫。
+     *
+     * @param user        已驗證的用戶
+     * @param newPassword 重新雜湊後的密碼
+     * @return UserDetails 帶有新密碼的用戶詳情
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        if (userDAO.updatePasswordByUsername(user.getUsername(), newPassword) > 0) {
+            userDetailsCache.invalidate(user.getUsername());
+            logger.info("Rehashed password for user: {}", user.getUsername());
+        }
+        return org.springframework.security.core.userdetails.User.withUserDetails(user)
+                .password(newPassword)
+                .build();
+    }
+
     /**
      * 根據用戶名查找用戶。
      *
@@ -182,6 +211,7 @@ public class UserService implements UserDetailsService {
         try {
             int updateCount = userDAO.updateUserDetailsByUsername(username, birthday, interests);
             if (updateCount > 0) {
+                userDetailsCache.invalidate(username);
                 logger.info("User details updated successfully");
                 return true;
             } else {
@@ -1,6 +1,6 @@
 package com.mli.discord.module.message.controller;
 
-import java.io.IOException;
+import java.security.Principal;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -14,26 +14,27 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.handler.annotation.SendTo;
-import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import com.mli.discord.module.login.dto.UsernameDTO;
+import com.mli.discord.core.exception.ExportJobRejectedException;
+import com.mli.discord.module.message.dto.ExportJobIdDTO;
+import com.mli.discord.module.message.dto.ExportPageDTO;
+import com.mli.discord.module.message.dto.ExportSummaryDTO;
 import com.mli.discord.module.message.dto.MessageDTO;
+import com.mli.discord.module.message.dto.MessageHistoryDTO;
 import com.mli.discord.module.message.dto.RoomIdDTO;
 import com.mli.discord.module.message.dto.RoomUserFileDTO;
 import com.mli.discord.module.message.dto.UserFileDTO;
-import com.mli.discord.module.message.model.Key;
+import com.mli.discord.module.message.model.ExportJob;
 import com.mli.discord.module.message.model.Message;
-import com.mli.discord.module.message.model.RSAEntity;
+import com.mli.discord.module.message.model.VerifiedExport;
 import com.mli.discord.module.message.service.ChatService;
+import com.mli.discord.module.message.service.ExportJobService;
 import com.mli.discord.module.message.service.MessageService;
-import com.mli.discord.module.message.service.RSAService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -48,12 +49,12 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class ChatController {
 	private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
-	@Autowired
-	private RSAService rsaService;
 	@Autowired
 	private ChatService chatService;
 	@Autowired
 	private MessageService messageService;
+	@Autowired
+	private ExportJobService exportJobService;
 
 	@Autowired
 	SimpMessagingTemplate template;
@@ -114,44 +115,26 @@ public class ChatController {
 	}
 
 	/**
-	 * 處理從前端 STOMP 客戶端發送到 /app/message 的消息
+	 * 處理從前端 STOMP 客戶端發送到 /app/message 的消息。
+	 * 發送者取自 CONNECT 時綁定到會話的身份，不使用客戶端提供的 username；缺少 roomId 的消息直接捨棄。
 	 * 
-	 * @param messageDTO     接收到的消息
-	 * @param headerAccessor 消息頭訪問器
+	 * @param messageDTO 接收到的消息
+	 * @param principal  STOMP 會話的身份
 	 */
 	@Operation(summary = "處理從前端 STOMP 客戶端發送到 /app/message 的消息")
 	@MessageMapping("/message")
-	public void receiveAndBroadcastMessage(@Payload MessageDTO messageDTO, SimpMessageHeaderAccessor headerAccessor) {
-		logger.info("receiveAndBroadcastMessage username: {}", messageDTO.getUsername());
-
-		// 從 headerAccessor 獲取 session ID
-		String sessionId = headerAccessor.getSessionId();
-		logger.info("Session ID: {}", sessionId);
-
-		// 從 STOMP 消息獲取 username
-		String usernameFromMessage = messageDTO.getUsername();
-
-		// 嘗試從 HttpSession 獲取 username
-		String usernameFromSession = (String) headerAccessor.getSessionAttributes().get("username");
-
-		// 最終使用的 username
-		String finalUsername = usernameFromMessage != null ? usernameFromMessage : usernameFromSession;
-
-		if (finalUsername == null || finalUsername.isEmpty()) {
-			logger.info("Username is missing in both STOMP message and session");
-			// 備案：從 /me API 獲取用戶信息
-			Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-			if (authentication != null && authentication.isAuthenticated()) {
-				UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-				finalUsername = userDetails.getUsername();
-				logger.info("Retrieved username from SecurityContextHolder: {}", finalUsername);
-			}
+	public void receiveAndBroadcastMessage(@Payload MessageDTO messageDTO, Principal principal) {
+		if (principal == null) {
+			logger.info("Rejecting STOMP message from an unauthenticated session");
+			return;
 		}
-
-		if (finalUsername == null) {
-			logger.info("Failed to retrieve username by any means");
+		if (messageDTO.getRoomId() == null) {
+			// 沒有房間ID無法指派序號，也不會經過房間通道
+			logger.info("Rejecting STOMP message without roomId from {}", principal.getName());
 			return;
 		}
+		String finalUsername = principal.getName();
+		messageDTO.setUsername(finalUsername);
 
 		logger.info("Received STOMP message from {}: {}", finalUsername, messageDTO.getMessage());
 
@@ -163,91 +146,129 @@ public class ChatController {
 	}
 
 	/**
-	 * 根據房間ID獲取消息
+	 * 根據房間ID分頁獲取消息。
+	 * 未提供游標時返回最新一頁，客戶端可用最舊一筆的ID作為 beforeId 繼續向前翻頁。
 	 * 
-	 * @param roomIdDTO 房間IDDTO
-	 * @return ResponseEntity<List<Message>> 消息列表
+	 * @param historyDTO 分頁查詢條件
+	 * @return ResponseEntity<List<Message>> 依ID遞增排序的消息列表
 	 */
 	@PostMapping("/get-messages")
-	@Operation(summary = "根據房間ID獲取消息")
-	public ResponseEntity<List<Message>> getMessagesByRoomId(@RequestBody RoomIdDTO roomIdDTO) {
-		List<Message> messages = messageService.getMessagesByRoomId(roomIdDTO.getRoomId());
+	@Operation(summary = "根據房間ID分頁獲取消息")
+	public ResponseEntity<List<Message>> getMessagesByRoomId(@RequestBody MessageHistoryDTO historyDTO) {
+		List<Message> messages = messageService.getMessageHistory(historyDTO);
 		return ResponseEntity.ok(messages);
 	}
 
 	/**
 	 * Endpoint to export chat history as an Excel file, which prompts download with
-	 * the specified file name.
+	 * the specified file name. The signature is verified before any byte is sent,
+	 * then exactly the bytes that were verified are streamed to the response.
 	 *
 	 * @param userFileDTO DTO containing room ID, file name, and username.
-	 * @return ResponseEntity with the Excel file as a byte array.
+	 * @return ResponseEntity with the Excel file as a stream.
 	 */
 	@PostMapping("/export-chat-history")
 	public ResponseEntity<?> exportChatHistory(@RequestBody UserFileDTO userFileDTO) {
 		try {
-			byte[] excelFile = chatService.generateChatHistoryExcel(userFileDTO);
+			VerifiedExport verifiedExport = chatService.verifyChatHistoryExport(userFileDTO);
 			HttpHeaders headers = new HttpHeaders();
 			headers.setContentDisposition(ContentDisposition.builder("attachment")
 					.filename(userFileDTO.getFileName())
 					.build());
 			headers.add(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_OCTET_STREAM_VALUE);
+			if (verifiedExport.getSize() >= 0) {
+				headers.setContentLength(verifiedExport.getSize());
+			}
 
-			return ResponseEntity.ok().headers(headers).body(excelFile);
+			// 只輸出驗證時讀取的內容，不再重新讀取資料庫
+			StreamingResponseBody body = outputStream -> chatService.writeChatHistoryExport(verifiedExport,
+					outputStream);
+			return ResponseEntity.ok().headers(headers).body(body);
 		} catch (SecurityException se) {
 			logger.error("Security exception: " + se.getMessage());
 			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("驗證數位簽章失敗: " + se.getMessage());
-		} catch (IOException e) {
-			logger.error("IO exception: " + e.getMessage());
-			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-					.body("Server error occurred while exporting file.");
 		} catch (Exception e) {
 			logger.error("General exception: " + e.getMessage());
 			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An unexpected error occurred.");
 		}
 	}
 
+	/**
+	 * 以串流方式下載房間的聊天歷史 Excel。
+	 * 檔案邊產生邊寫入回應，不在伺服器端組成完整的 byte 陣列。
+	 *
+	 * @param roomIdDTO 房間ID
+	 * @return ResponseEntity<StreamingResponseBody> Excel 檔案串流
+	 */
+	@Operation(summary = "以串流方式下載房間的聊天歷史 Excel")
+	@PostMapping("/stream-chat-history")
+	public ResponseEntity<StreamingResponseBody> streamChatHistory(@RequestBody RoomIdDTO roomIdDTO) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentDisposition(ContentDisposition.builder("attachment")
+				.filename("chat-history-" + roomIdDTO.getRoomId() + ".xlsx")
+				.build());
+		headers.add(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_OCTET_STREAM_VALUE);
+
+		StreamingResponseBody body = outputStream -> chatService.writeChatHistoryExcel(roomIdDTO.getRoomId(),
+				outputStream);
+		return ResponseEntity.ok().headers(headers).body(body);
+	}
+
+	/**
+	 * 提交聊天歷史匯出工作，產生、簽章與儲存於背景執行。
+	 * 進度會推送至 /user/queue/export-jobs，也可透過 /export-jobs/status 查詢。
+	 *
+	 * @param roomUserFileDTO 房間ID、檔名與使用者資料
+	 * @param principal       目前登入的使用者
+	 * @return ResponseEntity<?> 202 與工作狀態；超過並行上限時返回 429
+	 */
 	@Operation(summary = "導出並保存聊天歷史記錄")
 	@PostMapping("/save-chat-history")
-	public ResponseEntity<String> saveChatHistory(@RequestBody RoomUserFileDTO roomUserFileDTO) {
+	public ResponseEntity<?> saveChatHistory(@RequestBody RoomUserFileDTO roomUserFileDTO, Principal principal) {
 		try {
-			String excelBase64 = chatService.generateChatHistoryExcelBase64(roomUserFileDTO);
-
-			// 生成鑰匙對
-			Key key = rsaService.createKeyPair();
-
-			// 使用生成的私鑰進行簽名
-			String signature = rsaService.signData(excelBase64, key.getPrivateKey());
-
-			// 创建签名记录实体并保存到数据库
-			RSAEntity rsaEntity = new RSAEntity();
-			rsaEntity.setUsername(roomUserFileDTO.getUsername());
-			rsaEntity.setName(roomUserFileDTO.getFileName());
-			rsaEntity.setPub(key.getPublicKey());
-			rsaEntity.setSignature(signature);
-			rsaEntity.setData(excelBase64);
-			rsaService.insertSignatureRecord(rsaEntity);
-
-			return ResponseEntity.ok("Chat history exported and saved successfully.");
+			ExportJob job = exportJobService.submit(principal.getName(), roomUserFileDTO);
+			return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+		} catch (ExportJobRejectedException e) {
+			logger.warn("Export job rejected: {}", e.getMessage());
+			return ResponseEntity.status(e.getHttpStatus()).body(e.getMessage());
 		} catch (Exception e) {
-			logger.error("Error while exporting and saving chat history", e);
+			logger.error("Error while submitting chat history export", e);
 			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to save chat history.");
 		}
 	}
 
 	/**
-	 * Retrieves all RSA entities for a specified username.
+	 * 查詢匯出工作的狀態，只能查詢自己提交的工作。
+	 *
+	 * @param exportJobIdDTO 工作ID
+	 * @param principal      目前登入的使用者
+	 * @return ResponseEntity<ExportJob> 工作狀態；找不到時返回 404
+	 */
+	@Operation(summary = "查詢匯出工作的狀態")
+	@PostMapping("/export-jobs/status")
+	public ResponseEntity<ExportJob> getExportJobStatus(@RequestBody ExportJobIdDTO exportJobIdDTO,
+			Principal principal) {
+		ExportJob job = exportJobService.findJob(principal.getName(), exportJobIdDTO.getJobId());
+		if (job == null) {
+			return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+		}
+		return ResponseEntity.ok(job);
+	}
+
+	/**
+	 * 分頁查詢使用者的匯出檔摘要（ID、檔名、大小、建立時間與摘要值），不含檔案內容。
 	 *
-	 * @param username The username to search for RSA entities.
-	 * @return A ResponseEntity containing the list of RSA entities.
+	 * @param exportPageDTO 用戶名與分頁條件
+	 * @return ResponseEntity<List<ExportSummaryDTO>> 依建立時間由新到舊排序的匯出檔摘要；頁碼超出範圍時返回 400
 	 */
-	@Operation(summary = "Retrieve all RSA entities for a specified username")
+	@Operation(summary = "分頁查詢使用者的匯出檔摘要")
 	@PostMapping("/get-rsa-entities")
-	public ResponseEntity<List<RSAEntity>> getRSAEntitiesByUsername(@RequestBody UsernameDTO usernameDTO) {
+	public ResponseEntity<List<ExportSummaryDTO>> getRSAEntitiesByUsername(@RequestBody ExportPageDTO exportPageDTO) {
 		try {
-			RSAEntity rsaEntity = new RSAEntity();
-			rsaEntity.setUsername(usernameDTO.getUsername());
-			List<RSAEntity> entities = chatService.selectAllFilesByUsername(rsaEntity);
-			return ResponseEntity.ok(entities);
+			return ResponseEntity.ok(chatService.findExportSummaries(exportPageDTO));
+		} catch (IllegalArgumentException e) {
+			logger.warn("Rejecting export listing request: {}", e.getMessage());
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
 		} catch (Exception e) {
 			logger.error("Error retrieving RSA entities", e);
 			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
@@ -2,6 +2,10 @@ package com.mli.discord.module.message.dao;
 
 import java.util.List;
 
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+
+import com.mli.discord.module.message.dto.RoomSeqDTO;
 import com.mli.discord.module.message.model.Message;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -23,6 +27,15 @@ public interface MessageDAO {
 	@Operation(summary = "插入訊息")
 	void insertMessage(Message message);
 
+	/**
+	 * 以單一多筆 INSERT 批次插入訊息
+	 * 
+	 * @param messages 訊息列表
+	 * @return List<Message> 每筆新增列的 id、roomId 與 seq（未保證順序），只用於依 (roomId, seq) 回填ID
+	 */
+	@Operation(summary = "批次插入訊息")
+	List<Message> insertMessages(@Param("messages") List<Message> messages);
+
 	/**
 	 * 根據房間ID查詢訊息列表
 	 * 
@@ -32,4 +45,77 @@ public interface MessageDAO {
 	@Operation(summary = "根據房間ID查詢訊息列表")
 	List<Message> findMessagesByRoomId(Integer roomId);
 
+	/**
+	 * 以游標逐筆讀取房間的所有訊息，依ID遞增排序；須在交易內使用並關閉
+	 * 
+	 * @param roomId 房間ID
+	 * @return Cursor<Message> 訊息游標
+	 */
+	@Operation(summary = "以游標逐筆讀取房間的所有訊息")
+	Cursor<Message> streamMessagesByRoomId(Integer roomId);
+
+	/**
+	 * 查詢房間最新的訊息，依ID遞增排序
+	 * 
+	 * @param roomId 房間ID
+	 * @param limit  筆數上限
+	 * @return List<Message> 訊息列表
+	 */
+	@Operation(summary = "查詢房間最新的訊息")
+	List<Message> findLatestMessages(@Param("roomId") Integer roomId, @Param("limit") int limit);
+
+	/**
+	 * 查詢指定訊息ID之前的訊息，依ID遞增排序
+	 * 
+	 * @param roomId   房間ID
+	 * @param beforeId 游標訊息ID（不含）
+	 * @param limit    筆數上限
+	 * @return List<Message> 訊息列表
+	 */
+	@Operation(summary = "查詢指定訊息ID之前的訊息")
+	List<Message> findMessagesBefore(@Param("roomId") Integer roomId, @Param("beforeId") Integer beforeId,
+			@Param("limit") int limit);
+
+	/**
+	 * 查詢指定訊息ID之後的訊息，依ID遞增排序
+	 * 
+	 * @param roomId  房間ID
+	 * @param afterId 游標訊息ID（不含）
+	 * @param limit   筆數上限
+	 * @return List<Message> 訊息列表
+	 */
+	@Operation(summary = "查詢指定訊息ID之後的訊息")
+	List<Message> findMessagesAfter(@Param("roomId") Integer roomId, @Param("afterId") Integer afterId,
+			@Param("limit") int limit);
+
+	/**
+	 * 查詢序號區間內的訊息，依序號遞增排序
+	 * 
+	 * @param roomId  房間ID
+	 * @param fromSeq 起始序號（含）
+	 * @param toSeq   結束序號（含）
+	 * @param limit   筆數上限
+	 * @return List<Message> 訊息列表
+	 */
+	@Operation(summary = "查詢序號區間內的訊息")
+	List<Message> findMessagesBySeqRange(@Param("roomId") Integer roomId, @Param("fromSeq") Long fromSeq,
+			@Param("toSeq") Long toSeq, @Param("limit") int limit);
+
+	/**
+	 * 查詢每個房間目前最大的訊息序號
+	 * 
+	 * @return List<RoomSeqDTO> 房間與最大序號
+	 */
+	@Operation(summary = "查詢每個房間目前最大的訊息序號")
+	List<RoomSeqDTO> selectMaxSeqByRoom();
+
+	/**
+	 * 查詢房間目前最大的訊息序號
+	 * 
+	 * @param roomId 房間ID
+	 * @return Long 最大序號，房間尚無訊息時為 null
+	 */
+	@Operation(summary = "查詢房間目前最大的訊息序號")
+	Long selectMaxSeq(Integer roomId);
+
 }
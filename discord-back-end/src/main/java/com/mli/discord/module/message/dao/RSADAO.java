@@ -1,19 +1,53 @@
 package com.mli.discord.module.message.dao;
 
+import java.io.InputStream;
 import java.util.List;
 
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
+
+import com.mli.discord.module.message.dto.ExportSummaryDTO;
+import com.mli.discord.module.message.model.ExportContent;
 import com.mli.discord.module.message.model.RSAEntity;
 
 public interface RSADAO {
 
     /**
      * 插入签名记录到数据库。
-     * 
+     *
      * @param record 要插入的签名记录对象。
      */
     void insertRSA(RSAEntity record);
 
+    /**
+     * 以串流方式寫入簽章記錄對應的檔案內容。
+     *
+     * @param id      簽章記錄ID
+     * @param content 檔案內容串流
+     */
+    void insertContent(@Param("id") Integer id, @Param("content") InputStream content);
+
     List<RSAEntity> findByUsername(String username);
 
+    /**
+     * 分頁查詢使用者的匯出檔摘要，依建立時間由新到舊排序。
+     *
+     * @param username 用戶名
+     * @param offset   略過的筆數
+     * @param limit    筆數
+     * @return 匯出檔摘要列表
+     */
+    List<ExportSummaryDTO> findSummariesByUsername(@Param("username") String username, @Param("offset") int offset,
+            @Param("limit") int limit);
+
     RSAEntity findByUsernameAndFileName(String username, String name);
+
+    /**
+     * 以串流方式讀取簽章記錄對應的檔案內容。
+     * ExportContent 的內容串流只在 handler 回呼期間有效。
+     *
+     * @param id      簽章記錄ID
+     * @param handler 處理內容串流的回呼
+     */
+    void streamContent(@Param("id") Integer id, ResultHandler<ExportContent> handler);
 }
@@ -0,0 +1,59 @@
+package com.mli.discord.module.message.dto;
+
+import java.util.Objects;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ *
+ * @Author D3031104
+ * @version 1.0
+ */
+@Schema(description = "匯出工作ID的數據傳輸對象")
+public class ExportJobIdDTO {
+    private String jobId;
+
+    public ExportJobIdDTO() {
+    }
+
+    public ExportJobIdDTO(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getJobId() {
+        return this.jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public ExportJobIdDTO jobId(String jobId) {
+        setJobId(jobId);
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof ExportJobIdDTO)) {
+            return false;
+        }
+        ExportJobIdDTO exportJobIdDTO = (ExportJobIdDTO) o;
+        return Objects.equals(jobId, exportJobIdDTO.jobId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(jobId);
+    }
+
+    @Override
+    public String toString() {
+        return "{" +
+                " jobId='" + getJobId() + "'" +
+                "}";
+    }
+
+}
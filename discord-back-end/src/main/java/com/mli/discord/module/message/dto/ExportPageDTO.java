@@ -0,0 +1,97 @@
+package com.mli.discord.module.message.dto;
+
+import java.util.Objects;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * 匯出檔列表的分頁查詢條件，依建立時間由新到舊排序。
+ *
+ * @Author D3031104
+ * @version 1.0
+ */
+@Schema(description = "匯出檔列表分頁查詢的數據傳輸對象")
+public class ExportPageDTO {
+    private String username;
+
+    /** 頁碼，從 0 開始 */
+    private Integer page;
+
+    /** 單頁筆數 */
+    private Integer pageSize;
+
+    public ExportPageDTO() {
+    }
+
+    public ExportPageDTO(String username, Integer page, Integer pageSize) {
+        this.username = username;
+        this.page = page;
+        this.pageSize = pageSize;
+    }
+
+    public String getUsername() {
+        return this.username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public Integer getPage() {
+        return this.page;
+    }
+
+    public void setPage(Integer page) {
+        this.page = page;
+    }
+
+    public Integer getPageSize() {
+        return this.pageSize;
+    }
+
+    public void setPageSize(Integer pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public ExportPageDTO username(String username) {
+        setUsername(username);
+        return this;
+    }
+
+    public ExportPageDTO page(Integer page) {
+        setPage(page);
+        return this;
+    }
+
+    public ExportPageDTO pageSize(Integer pageSize) {
+        setPageSize(pageSize);
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof ExportPageDTO)) {
+            return false;
+        }
+        ExportPageDTO exportPageDTO = (ExportPageDTO) o;
+        return Objects.equals(username, exportPageDTO.username) && Objects.equals(page, exportPageDTO.page)
+                && Objects.equals(pageSize, exportPageDTO.pageSize);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(username, page, pageSize);
+    }
+
+    @Override
+    public String toString() {
+        return "{" +
+                " username='" + getUsername() + "'" +
+                ", page='" + getPage() + "'" +
+                ", pageSize='" + getPageSize() + "'" +
+                "}";
+    }
+
+}
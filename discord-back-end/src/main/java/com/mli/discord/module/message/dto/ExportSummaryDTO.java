@@ -0,0 +1,119 @@
+package com.mli.discord.module.message.dto;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * 匯出檔列表的輕量投影，不含檔案內容、公鑰與簽章。
+ *
+ * @Author D3031104
+ * @version 1.0
+ */
+@Schema(description = "匯出檔摘要的數據傳輸對象")
+public class ExportSummaryDTO {
+    private Integer id;
+    private String username;
+    private String name;
+
+    /** 檔案大小 (bytes)，舊版 Base64 檔案為 null */
+    private Long size;
+    private LocalDateTime createdAt;
+
+    /** 檔案內容的 SHA-256 (hex)，舊版 Base64 檔案為 null */
+    private String digest;
+
+    public ExportSummaryDTO() {
+    }
+
+    public ExportSummaryDTO(Integer id, String username, String name, Long size, LocalDateTime createdAt,
+            String digest) {
+        this.id = id;
+        this.username = username;
+        this.name = name;
+        this.size = size;
+        this.createdAt = createdAt;
+        this.digest = digest;
+    }
+
+    public Integer getId() {
+        return this.id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getUsername() {
+        return this.username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getSize() {
+        return this.size;
+    }
+
+    public void setSize(Long size) {
+        this.size = size;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return this.createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getDigest() {
+        return this.digest;
+    }
+
+    public void setDigest(String digest) {
+        this.digest = digest;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof ExportSummaryDTO)) {
+            return false;
+        }
+        ExportSummaryDTO exportSummaryDTO = (ExportSummaryDTO) o;
+        return Objects.equals(id, exportSummaryDTO.id) && Objects.equals(username, exportSummaryDTO.username)
+                && Objects.equals(name, exportSummaryDTO.name) && Objects.equals(size, exportSummaryDTO.size)
+                && Objects.equals(createdAt, exportSummaryDTO.createdAt)
+                && Objects.equals(digest, exportSummaryDTO.digest);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, username, name, size, createdAt, digest);
+    }
+
+    @Override
+    public String toString() {
+        return "{" +
+                " id='" + getId() + "'" +
+                ", username='" + getUsername() + "'" +
+                ", name='" + getName() + "'" +
+                ", size='" + getSize() + "'" +
+                ", createdAt='" + getCreatedAt() + "'" +
+                ", digest='" + getDigest() + "'" +
+                "}";
+    }
+
+}
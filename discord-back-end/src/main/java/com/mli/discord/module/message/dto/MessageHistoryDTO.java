@@ -0,0 +1,151 @@
+package com.mli.discord.module.message.dto;
+
+import java.util.Objects;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * 訊息歷史分頁查詢條件。
+ * beforeId 與 afterId 皆未提供時查詢最新的 limit 筆訊息；提供 fromSeq 時改依序號查詢缺漏的區間。
+ *
+ * @Author D3031104
+ * @version 1.0
+ */
+@Schema(description = "訊息歷史分頁查詢的數據傳輸對象")
+public class MessageHistoryDTO {
+    private Integer roomId;
+
+    /** 查詢此訊息ID之前（較舊）的訊息 */
+    private Integer beforeId;
+
+    /** 查詢此訊息ID之後（較新）的訊息 */
+    private Integer afterId;
+
+    /** 單頁筆數 */
+    private Integer limit;
+
+    /** 查詢的起始序號（含） */
+    private Long fromSeq;
+
+    /** 查詢的結束序號（含），未提供時查詢至目前最新 */
+    private Long toSeq;
+
+    public MessageHistoryDTO() {
+    }
+
+    public MessageHistoryDTO(Integer roomId, Integer beforeId, Integer afterId, Integer limit) {
+        this.roomId = roomId;
+        this.beforeId = beforeId;
+        this.afterId = afterId;
+        this.limit = limit;
+    }
+
+    public Integer getRoomId() {
+        return this.roomId;
+    }
+
+    public void setRoomId(Integer roomId) {
+        this.roomId = roomId;
+    }
+
+    public Integer getBeforeId() {
+        return this.beforeId;
+    }
+
+    public void setBeforeId(Integer beforeId) {
+        this.beforeId = beforeId;
+    }
+
+    public Integer getAfterId() {
+        return this.afterId;
+    }
+
+    public void setAfterId(Integer afterId) {
+        this.afterId = afterId;
+    }
+
+    public Integer getLimit() {
+        return this.limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
+    public Long getFromSeq() {
+        return this.fromSeq;
+    }
+
+    public void setFromSeq(Long fromSeq) {
+        this.fromSeq = fromSeq;
+    }
+
+    public Long getToSeq() {
+        return this.toSeq;
+    }
+
+    public void setToSeq(Long toSeq) {
+        this.toSeq = toSeq;
+    }
+
+    public MessageHistoryDTO roomId(Integer roomId) {
+        setRoomId(roomId);
+        return this;
+    }
+
+    public MessageHistoryDTO beforeId(Integer beforeId) {
+        setBeforeId(beforeId);
+        return this;
+    }
+
+    public MessageHistoryDTO afterId(Integer afterId) {
+        setAfterId(afterId);
+        return this;
+    }
+
+    public MessageHistoryDTO limit(Integer limit) {
+        setLimit(limit);
+        return this;
+    }
+
+    public MessageHistoryDTO fromSeq(Long fromSeq) {
+        setFromSeq(fromSeq);
+        return this;
+    }
+
+    public MessageHistoryDTO toSeq(Long toSeq) {
+        setToSeq(toSeq);
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof MessageHistoryDTO)) {
+            return false;
+        }
+        MessageHistoryDTO messageHistoryDTO = (MessageHistoryDTO) o;
+        return Objects.equals(roomId, messageHistoryDTO.roomId) && Objects.equals(beforeId, messageHistoryDTO.beforeId)
+                && Objects.equals(afterId, messageHistoryDTO.afterId) && Objects.equals(limit, messageHistoryDTO.limit)
+                && Objects.equals(fromSeq, messageHistoryDTO.fromSeq) && Objects.equals(toSeq, messageHistoryDTO.toSeq);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(roomId, beforeId, afterId, limit, fromSeq, toSeq);
+    }
+
+    @Override
+    public String toString() {
+        return "{" +
+                " roomId='" + getRoomId() + "'" +
+                ", beforeId='" + getBeforeId() + "'" +
+                ", afterId='" + getAfterId() + "'" +
+                ", limit='" + getLimit() + "'" +
+                ", fromSeq='" + getFromSeq() + "'" +
+                ", toSeq='" + getToSeq() + "'" +
+                "}";
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.mli.discord.module.message.dto;
+
+import java.util.Objects;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * 房間與其目前最大的訊息序號。
+ *
+ * @Author D3031104
+ * @version 1.0
+ */
+@Schema(description = "房間最大訊息序號的數據傳輸對象")
+public class RoomSeqDTO {
+    private Integer roomId;
+    private Long seq;
+
+    public RoomSeqDTO() {
+    }
+
+    public RoomSeqDTO(Integer roomId, Long seq) {
+        this.roomId = roomId;
+        this.seq = seq;
+    }
+
+    public Integer getRoomId() {
+        return this.roomId;
+    }
+
+    public void setRoomId(Integer roomId) {
+        this.roomId = roomId;
+    }
+
+    public Long getSeq() {
+        return this.seq;
+    }
+
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof RoomSeqDTO)) {
+            return false;
+        }
+        RoomSeqDTO roomSeqDTO = (RoomSeqDTO) o;
+        return Objects.equals(roomId, roomSeqDTO.roomId) && Objects.equals(seq, roomSeqDTO.seq);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(roomId, seq);
+    }
+
+    @Override
+    public String toString() {
+        return "{" +
+                " roomId='" + getRoomId() + "'" +
+                ", seq='" + getSeq() + "'" +
+                "}";
+    }
+
+}
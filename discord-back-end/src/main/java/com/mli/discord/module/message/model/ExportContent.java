@@ -0,0 +1,47 @@
+package com.mli.discord.module.message.model;
+
+import java.io.InputStream;
+
+/**
+ * 匯出檔案的二進位內容。
+ * content 直接對應資料庫結果集的串流，只在 ResultHandler 回呼期間有效。
+ *
+ * @Author D3031104
+ * @version 1.0
+ */
+public class ExportContent {
+    private Integer rsaEntityId;
+    private InputStream content;
+
+    public ExportContent() {
+    }
+
+    public ExportContent(Integer rsaEntityId, InputStream content) {
+        this.rsaEntityId = rsaEntityId;
+        this.content = content;
+    }
+
+    public Integer getRsaEntityId() {
+        return this.rsaEntityId;
+    }
+
+    public void setRsaEntityId(Integer rsaEntityId) {
+        this.rsaEntityId = rsaEntityId;
+    }
+
+    public InputStream getContent() {
+        return this.content;
+    }
+
+    public void setContent(InputStream content) {
+        this.content = content;
+    }
+
+    @Override
+    public String toString() {
+        return "{" +
+                " rsaEntityId='" + getRsaEntityId() + "'" +
+                "}";
+    }
+
+}
@@ -0,0 +1,236 @@
+package com.mli.discord.module.message.model;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * 聊天歷史匯出工作
+ *
+ * @Author D3031104
+ * @version 1.0
+ */
+@Schema(description = "聊天歷史匯出工作")
+public class ExportJob {
+    private String jobId;
+
+    /** 提交工作的登入使用者，進度通知只推送給此使用者 */
+    private String owner;
+    private Integer roomId;
+    private String fileName;
+
+    /** 工作狀態 */
+    private Status status;
+
+    /** 進度百分比 (0-100) */
+    private Integer progress;
+
+    /** 已寫入 Excel 的訊息筆數 */
+    private Integer rowsWritten;
+
+    /** 失敗原因 */
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    /**
+     * 工作狀態Enum
+     */
+    public enum Status {
+        QUEUED,
+        GENERATING,
+        SAVING,
+        COMPLETED,
+        FAILED;
+
+        public boolean isFinished() {
+            return this == COMPLETED || this == FAILED;
+        }
+    }
+
+    public ExportJob() {
+    }
+
+    public ExportJob(String jobId, String owner, Integer roomId, String fileName, Status status, Integer progress,
+            Integer rowsWritten, String error, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.jobId = jobId;
+        this.owner = owner;
+        this.roomId = roomId;
+        this.fileName = fileName;
+        this.status = status;
+        this.progress = progress;
+        this.rowsWritten = rowsWritten;
+        this.error = error;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    public String getJobId() {
+        return this.jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getOwner() {
+        return this.owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public Integer getRoomId() {
+        return this.roomId;
+    }
+
+    public void setRoomId(Integer roomId) {
+        this.roomId = roomId;
+    }
+
+    public String getFileName() {
+        return this.fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public Status getStatus() {
+        return this.status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Integer getProgress() {
+        return this.progress;
+    }
+
+    public void setProgress(Integer progress) {
+        this.progress = progress;
+    }
+
+    public Integer getRowsWritten() {
+        return this.rowsWritten;
+    }
+
+    public void setRowsWritten(Integer rowsWritten) {
+        this.rowsWritten = rowsWritten;
+    }
+
+    public String getError() {
+        return this.error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return this.createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return this.updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public ExportJob jobId(String jobId) {
+        setJobId(jobId);
+        return this;
+    }
+
+    public ExportJob owner(String owner) {
+        setOwner(owner);
+        return this;
+    }
+
+    public ExportJob roomId(Integer roomId) {
+        setRoomId(roomId);
+        return this;
+    }
+
+    public ExportJob fileName(String fileName) {
+        setFileName(fileName);
+        return this;
+    }
+
+    public ExportJob status(Status status) {
+        setStatus(status);
+        return this;
+    }
+
+    public ExportJob progress(Integer progress) {
+        setProgress(progress);
+        return this;
+    }
+
+    public ExportJob rowsWritten(Integer rowsWritten) {
+        setRowsWritten(rowsWritten);
+        return this;
+    }
+
+    public ExportJob error(String error) {
+        setError(error);
+        return this;
+    }
+
+    public ExportJob createdAt(LocalDateTime createdAt) {
+        setCreatedAt(createdAt);
+        return this;
+    }
+
+    public ExportJob updatedAt(LocalDateTime updatedAt) {
+        setUpdatedAt(updatedAt);
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof ExportJob)) {
+            return false;
+        }
+        ExportJob exportJob = (ExportJob) o;
+        return Objects.equals(jobId, exportJob.jobId) && Objects.equals(owner, exportJob.owner)
+                && Objects.equals(roomId, exportJob.roomId) && Objects.equals(fileName, exportJob.fileName)
+                && Objects.equals(status, exportJob.status) && Objects.equals(progress, exportJob.progress)
+                && Objects.equals(rowsWritten, exportJob.rowsWritten) && Objects.equals(error, exportJob.error)
+                && Objects.equals(createdAt, exportJob.createdAt) && Objects.equals(updatedAt, exportJob.updatedAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(jobId, owner, roomId, fileName, status, progress, rowsWritten, error, createdAt,
+                updatedAt);
+    }
+
+    @Override
+    public String toString() {
+        return "{" +
+                " jobId='" + getJobId() + "'" +
+                ", owner='" + getOwner() + "'" +
+                ", roomId='" + getRoomId() + "'" +
+                ", fileName='" + getFileName() + "'" +
+                ", status='" + getStatus() + "'" +
+                ", progress='" + getProgress() + "'" +
+                ", rowsWritten='" + getRowsWritten() + "'" +
+                ", error='" + getError() + "'" +
+                ", createdAt='" + getCreatedAt() + "'" +
+                ", updatedAt='" + getUpdatedAt() + "'" +
+                "}";
+    }
+
+}
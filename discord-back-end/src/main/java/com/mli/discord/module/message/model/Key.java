@@ -12,6 +12,10 @@ public class Key {
      * 私钥
      **/
     private String privateKey;
+    /**
+     * 簽章演算法 (JCA 名稱)
+     **/
+    private String algorithm;
 
     public Key() {
     }
@@ -37,6 +41,14 @@ public class Key {
         this.privateKey = privateKey;
     }
 
+    public String getAlgorithm() {
+        return this.algorithm;
+    }
+
+    public void setAlgorithm(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
     public Key publicKey(String publicKey) {
         setPublicKey(publicKey);
         return this;
@@ -47,6 +59,11 @@ public class Key {
         return this;
     }
 
+    public Key algorithm(String algorithm) {
+        setAlgorithm(algorithm);
+        return this;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == this)
@@ -55,12 +72,13 @@ public class Key {
             return false;
         }
         Key entity = (Key) o;
-        return Objects.equals(publicKey, entity.publicKey) && Objects.equals(privateKey, entity.privateKey);
+        return Objects.equals(publicKey, entity.publicKey) && Objects.equals(privateKey, entity.privateKey)
+                && Objects.equals(algorithm, entity.algorithm);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(publicKey, privateKey);
+        return Objects.hash(publicKey, privateKey, algorithm);
     }
 
     @Override
@@ -68,6 +86,7 @@ public class Key {
         return "{" +
                 " publicKey='" + getPublicKey() + "'" +
                 ", privateKey='" + getPrivateKey() + "'" +
+                ", algorithm='" + getAlgorithm() + "'" +
                 "}";
     }
 
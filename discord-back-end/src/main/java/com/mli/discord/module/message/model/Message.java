@@ -25,6 +25,9 @@ public class Message {
     private ChatType type;
     private LocalDateTime time;
 
+    /** 房間內單調遞增的序號，客戶端可據此偵測缺漏 */
+    private Long seq;
+
     /**
      * 訊息種類Enum
      */
@@ -95,6 +98,14 @@ public class Message {
         this.time = time;
     }
 
+    public Long getSeq() {
+        return this.seq;
+    }
+
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
+
     public Message id(Integer id) {
         setId(id);
         return this;
@@ -125,6 +136,11 @@ public class Message {
         return this;
     }
 
+    public Message seq(Long seq) {
+        setSeq(seq);
+        return this;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == this)
@@ -135,12 +151,13 @@ public class Message {
         Message message = (Message) o;
         return Objects.equals(id, message.id) && Objects.equals(roomId, message.roomId)
                 && Objects.equals(username, message.username) && Objects.equals(message, message.message)
-                && Objects.equals(type, message.type) && Objects.equals(time, message.time);
+                && Objects.equals(type, message.type) && Objects.equals(time, message.time)
+                && Objects.equals(seq, message.seq);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, roomId, username, message, type, time);
+        return Objects.hash(id, roomId, username, message, type, time, seq);
     }
 
     @Override
@@ -152,6 +169,7 @@ public class Message {
                 ", message='" + getMessage() + "'" +
                 ", type='" + getType() + "'" +
                 ", time='" + getTime() + "'" +
+                ", seq='" + getSeq() + "'" +
                 "}";
     }
 
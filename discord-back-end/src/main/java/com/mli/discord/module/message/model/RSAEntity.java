@@ -1,5 +1,6 @@
 package com.mli.discord.module.message.model;
 
+import java.time.LocalDateTime;
 import java.util.Objects;
 
 /**
@@ -18,10 +19,22 @@ public class RSAEntity {
 
     private String signature;
 
+    /** 舊版以 Base64 字串保存的檔案內容；新版檔案存放於 rsa_entity_content，此欄位為 null */
     private String data;
 
     private String name;
 
+    /** 檔案大小 (bytes) */
+    private Long size;
+
+    /** 檔案內容的 SHA-256 (hex) */
+    private String digest;
+
+    private LocalDateTime createdAt;
+
+    /** 簽章演算法 (JCA 名稱)，舊資料為 MD5withRSA */
+    private String algorithm;
+
     public RSAEntity() {
     }
 
@@ -34,6 +47,14 @@ public class RSAEntity {
         this.name = name;
     }
 
+    public RSAEntity(Integer id, String username, String pub, String signature, String data, String name, Long size,
+            String digest, LocalDateTime createdAt) {
+        this(id, username, pub, signature, data, name);
+        this.size = size;
+        this.digest = digest;
+        this.createdAt = createdAt;
+    }
+
     public Integer getId() {
         return this.id;
     }
@@ -82,6 +103,38 @@ public class RSAEntity {
         this.name = name;
     }
 
+    public Long getSize() {
+        return this.size;
+    }
+
+    public void setSize(Long size) {
+        this.size = size;
+    }
+
+    public String getDigest() {
+        return this.digest;
+    }
+
+    public void setDigest(String digest) {
+        this.digest = digest;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return this.createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getAlgorithm() {
+        return this.algorithm;
+    }
+
+    public void setAlgorithm(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
     public RSAEntity id(Integer id) {
         setId(id);
         return this;
@@ -112,6 +165,26 @@ public class RSAEntity {
         return this;
     }
 
+    public RSAEntity size(Long size) {
+        setSize(size);
+        return this;
+    }
+
+    public RSAEntity digest(String digest) {
+        setDigest(digest);
+        return this;
+    }
+
+    public RSAEntity createdAt(LocalDateTime createdAt) {
+        setCreatedAt(createdAt);
+        return this;
+    }
+
+    public RSAEntity algorithm(String algorithm) {
+        setAlgorithm(algorithm);
+        return this;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == this)
@@ -122,12 +195,14 @@ public class RSAEntity {
         RSAEntity rSAEntity = (RSAEntity) o;
         return Objects.equals(id, rSAEntity.id) && Objects.equals(username, rSAEntity.username)
                 && Objects.equals(pub, rSAEntity.pub) && Objects.equals(signature, rSAEntity.signature)
-                && Objects.equals(data, rSAEntity.data) && Objects.equals(name, rSAEntity.name);
+                && Objects.equals(data, rSAEntity.data) && Objects.equals(name, rSAEntity.name)
+                && Objects.equals(size, rSAEntity.size) && Objects.equals(digest, rSAEntity.digest)
+                && Objects.equals(createdAt, rSAEntity.createdAt) && Objects.equals(algorithm, rSAEntity.algorithm);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, username, pub, signature, data, name);
+        return Objects.hash(id, username, pub, signature, data, name, size, digest, createdAt, algorithm);
     }
 
     @Override
@@ -139,6 +214,10 @@ public class RSAEntity {
                 ", signature='" + getSignature() + "'" +
                 ", data='" + getData() + "'" +
                 ", name='" + getName() + "'" +
+                ", size='" + getSize() + "'" +
+                ", digest='" + getDigest() + "'" +
+                ", createdAt='" + getCreatedAt() + "'" +
+                ", algorithm='" + getAlgorithm() + "'" +
                 "}";
     }
 
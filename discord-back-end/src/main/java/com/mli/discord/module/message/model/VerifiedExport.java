@@ -0,0 +1,54 @@
+package com.mli.discord.module.message.model;
+
+import java.nio.file.Path;
+
+/**
+ * 已通過簽章驗證的匯出檔。
+ * 保存驗證時實際讀取的內容：可快取大小的檔案為 content，較大的檔案為暫存檔 file，
+ * 下載時只輸出這份內容，不再重新讀取資料庫。
+ *
+ * @Author D3031104
+ * @version 1.0
+ */
+public class VerifiedExport {
+    private final RSAEntity rsaEntity;
+    private final byte[] content;
+    private final Path file;
+    private final long size;
+
+    public VerifiedExport(RSAEntity rsaEntity, byte[] content, Path file, long size) {
+        this.rsaEntity = rsaEntity;
+        this.content = content;
+        this.file = file;
+        this.size = size;
+    }
+
+    public RSAEntity getRsaEntity() {
+        return this.rsaEntity;
+    }
+
+    /** 檔案內容，內容保存在暫存檔時為 null */
+    public byte[] getContent() {
+        return this.content;
+    }
+
+    /** 暫存檔，內容保存在記憶體時為 null */
+    public Path getFile() {
+        return this.file;
+    }
+
+    /** 已驗證內容的大小 (bytes) */
+    public long getSize() {
+        return this.size;
+    }
+
+    @Override
+    public String toString() {
+        return "{" +
+                " rsaEntity='" + getRsaEntity().getName() + "'" +
+                ", file='" + getFile() + "'" +
+                ", size='" + getSize() + "'" +
+                "}";
+    }
+
+}
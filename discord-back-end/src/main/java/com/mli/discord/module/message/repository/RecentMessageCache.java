@@ -0,0 +1,304 @@
+package com.mli.discord.module.message.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import com.mli.discord.module.message.dao.MessageDAO;
+import com.mli.discord.module.message.model.Message;
+import com.mli.discord.module.message.service.MessageWriteBehindService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * RecentMessageCache 以環形緩衝區保存每個房間最近的訊息。
+ * 寫入時由 MessageService 填充，首次讀取時由資料庫延遲載入；
+ * 總記憶體超過預算時淘汰最久未被存取的房間。
+ *
+ * @author D3031104
+ * @version 1.0
+ */
+@Repository
+public class RecentMessageCache {
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    /** 估算單筆訊息物件的固定開銷（物件標頭、欄位、LocalDateTime） */
+    private static final long MESSAGE_OVERHEAD_BYTES = 128;
+    /** 超過預算時淘汰至預算的此比例 */
+    private static final double LOW_WATER_RATIO = 0.9;
+
+    @Autowired
+    private MessageDAO messageDAO;
+    @Autowired
+    private MessageWriteBehindService messageWriteBehindService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${discord.message.recent-cache.per-room:100}")
+    private int perRoomCapacity;
+    @Value("${discord.message.recent-cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    private final ConcurrentHashMap<Integer, RoomBuffer> rooms = new ConcurrentHashMap<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final Object evictionLock = new Object();
+
+    private Counter hitCounter;
+    private Counter missCounter;
+    private Counter evictionCounter;
+
+    @PostConstruct
+    public void init() {
+        hitCounter = Counter.builder("discord.messages.recent-cache.hits").register(meterRegistry);
+        missCounter = Counter.builder("discord.messages.recent-cache.misses").register(meterRegistry);
+        evictionCounter = Counter.builder("discord.messages.recent-cache.evictions").register(meterRegistry);
+        Gauge.builder("discord.messages.recent-cache.bytes", totalBytes, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("discord.messages.recent-cache.rooms", rooms, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * 將新訊息加入該房間的緩衝區；房間尚未載入時略過，待首次讀取時再由資料庫載入。
+     *
+     * @param message 新訊息
+     */
+    public void append(Message message) {
+        RoomBuffer buffer = rooms.get(message.getRoomId());
+        if (buffer == null) {
+            return;
+        }
+        totalBytes.addAndGet(buffer.add(message));
+        enforceBudget();
+    }
+
+    /**
+     * 取得房間最新的訊息，依時間先後排序。
+     *
+     * @param roomId 房間ID
+     * @param limit  筆數
+     * @return 訊息列表；limit 超過緩衝區容量或載入期間房間被淘汰時返回 null，由呼叫端改查資料庫
+     */
+    public List<Message> latest(Integer roomId, int limit) {
+        if (limit > perRoomCapacity) {
+            return null;
+        }
+        RoomBuffer buffer = rooms.get(roomId);
+        if (buffer != null && buffer.isLoaded()) {
+            hitCounter.increment();
+            return buffer.tail(limit);
+        }
+        missCounter.increment();
+        buffer = rooms.computeIfAbsent(roomId, id -> new RoomBuffer(perRoomCapacity));
+        warmUp(roomId, buffer);
+        enforceBudget();
+        if (!buffer.isLoaded()) {
+            // 載入期間已被淘汰，緩衝區內容不完整
+            return null;
+        }
+        return buffer.tail(limit);
+    }
+
+    /**
+     * 由資料庫與寫後佇列載入房間最近的訊息。
+     * 緩衝區先建立再取快照，載入期間寫入的訊息會先進入緩衝區，於合併時保留。
+     * 資料庫查詢不持有緩衝區的鎖，因此不會阻塞同房間的寫入。
+     */
+    private void warmUp(Integer roomId, RoomBuffer buffer) {
+        synchronized (buffer.loadLock) {
+            if (buffer.isLoaded()) {
+                return;
+            }
+            List<Message> pending = messageWriteBehindService.pendingMessages(roomId);
+            List<Message> persisted = messageDAO.findLatestMessages(roomId, perRoomCapacity);
+            totalBytes.addAndGet(buffer.load(persisted, pending));
+            logger.debug("Warmed recent message cache for room {}", roomId);
+        }
+    }
+
+    /**
+     * 超過記憶體預算時，依最後存取時間一次淘汰多個閒置的房間，直到用量降至低水位。
+     * 未超過預算時只比較一次計數器；走訪並排序所有房間只在跨越預算時發生，
+     * 之後須再寫入約一成預算的資料才會再次觸發，因此寫入路徑的攤銷成本與房間數無關。
+     */
+    private void enforceBudget() {
+        if (totalBytes.get() <= maxBytes) {
+            return;
+        }
+        synchronized (evictionLock) {
+            if (totalBytes.get() <= maxBytes) {
+                return;
+            }
+            long lowWater = (long) (maxBytes * LOW_WATER_RATIO);
+            // 先取最後存取時間的快照，排序期間的存取不會影響比較結果
+            List<EvictionCandidate> candidates = new ArrayList<>(rooms.size());
+            rooms.forEach((roomId, buffer) -> candidates.add(new EvictionCandidate(roomId, buffer)));
+            candidates.sort(Comparator.comparingLong(candidate -> candidate.lastAccess));
+            for (EvictionCandidate candidate : candidates) {
+                if (totalBytes.get() <= lowWater) {
+                    break;
+                }
+                if (rooms.remove(candidate.roomId, candidate.buffer)) {
+                    totalBytes.addAndGet(-candidate.buffer.evict());
+                    evictionCounter.increment();
+                }
+            }
+        }
+    }
+
+    private static String contentKey(Message message) {
+        return message.getUsername() + '\u0000' + message.getTime() + '\u0000' + message.getMessage();
+    }
+
+    private static long estimateBytes(Message message) {
+        long chars = (message.getMessage() == null ? 0 : message.getMessage().length())
+                + (message.getUsername() == null ? 0 : message.getUsername().length());
+        return MESSAGE_OVERHEAD_BYTES + chars * 2;
+    }
+
+    /**
+     * 淘汰候選房間，保存排序當下的最後存取時間。
+     */
+    private static final class EvictionCandidate {
+        private final Integer roomId;
+        private final RoomBuffer buffer;
+        private final long lastAccess;
+
+        EvictionCandidate(Integer roomId, RoomBuffer buffer) {
+            this.roomId = roomId;
+            this.buffer = buffer;
+            this.lastAccess = buffer.lastAccess;
+        }
+    }
+
+    /**
+     * 單一房間的固定容量環形緩衝區。
+     */
+    private static final class RoomBuffer {
+        private final Object loadLock = new Object();
+        private final Message[] ring;
+        private int head;
+        private int size;
+        private long bytes;
+        private boolean loaded;
+        private boolean evicted;
+        private volatile long lastAccess = System.nanoTime();
+
+        RoomBuffer(int capacity) {
+            this.ring = new Message[capacity];
+        }
+
+        synchronized boolean isLoaded() {
+            return loaded;
+        }
+
+        /**
+         * 標記為已淘汰，之後的寫入不再計入記憶體用量。
+         *
+         * @return 淘汰時佔用的記憶體
+         */
+        synchronized long evict() {
+            evicted = true;
+            return bytes;
+        }
+
+        /**
+         * 加入訊息，緩衝區已滿時覆蓋最舊的一筆。
+         *
+         * @return 記憶體用量的變化
+         */
+        synchronized long add(Message message) {
+            if (evicted) {
+                return 0;
+            }
+            long before = bytes;
+            int tail = (head + size) % ring.length;
+            if (size == ring.length) {
+                bytes -= estimateBytes(ring[head]);
+                ring[head] = message;
+                head = (head + 1) % ring.length;
+            } else {
+                ring[tail] = message;
+                size++;
+            }
+            bytes += estimateBytes(message);
+            lastAccess = System.nanoTime();
+            return bytes - before;
+        }
+
+        /**
+         * 合併資料庫中的訊息、尚未寫入的訊息與緩衝區現有內容，重建緩衝區並標記為已載入。
+         * 尚未寫入的訊息可能在查詢前已寫入完成，依ID、序號或內容去除重複。
+         *
+         * 載入期間緩衝區已被淘汰時不重建，因為淘汰後的用量已不計入總量。
+         *
+         * @return 記憶體用量的變化
+         */
+        synchronized long load(List<Message> persisted, List<Message> pending) {
+            if (evicted) {
+                return 0;
+            }
+            Set<Integer> persistedIds = new HashSet<>();
+            Set<Long> persistedSeqs = new HashSet<>();
+            Set<String> persistedKeys = new HashSet<>();
+            for (Message message : persisted) {
+                persistedIds.add(message.getId());
+                persistedSeqs.add(message.getSeq());
+                persistedKeys.add(contentKey(message));
+            }
+            List<Message> merged = new ArrayList<>(persisted);
+            Map<Message, Boolean> unsaved = new IdentityHashMap<>();
+            List<Message> candidates = new ArrayList<>(pending);
+            candidates.addAll(tail(size));
+            for (Message message : candidates) {
+                boolean alreadyPersisted = (message.getId() != null && persistedIds.contains(message.getId()))
+                        || (message.getSeq() != null && persistedSeqs.contains(message.getSeq()))
+                        || persistedKeys.contains(contentKey(message));
+                if (!alreadyPersisted && unsaved.put(message, Boolean.TRUE) == null) {
+                    merged.add(message);
+                }
+            }
+
+            long before = bytes;
+            Arrays.fill(ring, null);
+            head = 0;
+            size = 0;
+            bytes = 0;
+            for (Message message : merged.subList(Math.max(0, merged.size() - ring.length), merged.size())) {
+                add(message);
+            }
+            loaded = true;
+            return bytes - before;
+        }
+
+        synchronized List<Message> tail(int limit) {
+            lastAccess = System.nanoTime();
+            int count = Math.min(limit, size);
+            if (count == 0) {
+                return Collections.emptyList();
+            }
+            List<Message> result = new ArrayList<>(count);
+            for (int i = size - count; i < size; i++) {
+                result.add(Objects.requireNonNull(ring[(head + i) % ring.length]));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.mli.discord.module.message.repository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import com.mli.discord.module.message.dao.MessageDAO;
+import com.mli.discord.module.message.dto.RoomSeqDTO;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * RoomSequence 在記憶體中為每個房間指派單調遞增的訊息序號。
+ * 啟動時以資料庫中各房間的 MAX(seq) 還原計數器，之後由接收訊息的執行緒直接遞增，不需資料庫往返；
+ * 啟動後才出現的房間於第一次指派時查詢一次資料庫。
+ * 序號只在單一實例內保證唯一，資料庫的 (room_id, seq) 唯一索引作為最後防線。
+ *
+ * @author D3031104
+ * @version 1.0
+ */
+@Repository
+public class RoomSequence {
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired
+    private MessageDAO messageDAO;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<Integer, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        for (RoomSeqDTO row : messageDAO.selectMaxSeqByRoom()) {
+            counters.put(row.getRoomId(), new AtomicLong(row.getSeq()));
+        }
+        logger.info("Recovered message sequences for {} room(s)", counters.size());
+        Gauge.builder("discord.messages.seq.rooms", counters, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * 指派房間的下一個序號。
+     *
+     * @param roomId 房間ID
+     * @return 新序號，由 1 開始
+     */
+    public long next(Integer roomId) {
+        return counter(roomId).incrementAndGet();
+    }
+
+    /**
+     * 取得房間目前已指派的最大序號。
+     *
+     * @param roomId 房間ID
+     * @return 最大序號，房間尚無訊息時為 0
+     */
+    public long current(Integer roomId) {
+        return counter(roomId).get();
+    }
+
+    private AtomicLong counter(Integer roomId) {
+        AtomicLong counter = counters.get(roomId);
+        if (counter != null) {
+            return counter;
+        }
+        // 只在房間第一次出現時查詢，查詢期間同房間的其他指派會等待同一個計數器
+        return counters.computeIfAbsent(roomId, id -> {
+            Long max = messageDAO.selectMaxSeq(id);
+            return new AtomicLong(max == null ? 0 : max);
+        });
+    }
+}
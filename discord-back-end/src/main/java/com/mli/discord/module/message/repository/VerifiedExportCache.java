@@ -0,0 +1,176 @@
+package com.mli.discord.module.message.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import com.mli.discord.module.message.model.RSAEntity;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * VerifiedExportCache 保存已通過簽章驗證的匯出檔內容，重複下載同一份匯出檔時不必再驗證與解碼。
+ * 以簽章記錄ID為鍵，並保存公鑰、簽章、SHA-256 與演算法的指紋；記錄內容變更時指紋不符，快取即失效。
+ * 總大小超過預算時淘汰最久未被存取的項目。
+ *
+ * @author D3031104
+ * @version 1.0
+ */
+@Repository
+public class VerifiedExportCache {
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${discord.export.cache.max-bytes:67108864}")
+    private long maxBytes;
+    @Value("${discord.export.cache.max-entry-bytes:8388608}")
+    private long maxEntryBytes;
+
+    /** 依存取順序排列，最前面為最久未被存取的項目 */
+    private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private Counter hitCounter;
+    private Counter missCounter;
+    private Counter evictionCounter;
+
+    @PostConstruct
+    public void init() {
+        hitCounter = Counter.builder("discord.export.cache.hits").register(meterRegistry);
+        missCounter = Counter.builder("discord.export.cache.misses").register(meterRegistry);
+        evictionCounter = Counter.builder("discord.export.cache.evictions").register(meterRegistry);
+        Gauge.builder("discord.export.cache.bytes", this, VerifiedExportCache::bytes).register(meterRegistry);
+        Gauge.builder("discord.export.cache.entries", this, VerifiedExportCache::size).register(meterRegistry);
+        Gauge.builder("discord.export.cache.hit-ratio", this, VerifiedExportCache::hitRatio).register(meterRegistry);
+    }
+
+    /**
+     * 判斷指定大小的檔案是否可放入快取。
+     *
+     * @param size 檔案大小 (bytes)，未知時為 null
+     * @return 可快取時返回 true
+     */
+    public boolean accepts(Long size) {
+        return size != null && size <= maxEntryBytes && size <= maxBytes;
+    }
+
+    /**
+     * 取得已驗證的檔案內容並記錄命中率。記錄內容已變更時移除舊項目並視為未命中。
+     *
+     * @param rsaEntity 由資料庫讀取的簽章記錄
+     * @return 檔案內容；未命中時返回 null
+     */
+    public byte[] get(RSAEntity rsaEntity) {
+        byte[] content = peek(rsaEntity);
+        if (content != null) {
+            hitCounter.increment();
+        } else {
+            missCounter.increment();
+        }
+        return content;
+    }
+
+    /**
+     * 取得已驗證的檔案內容，不計入命中率。
+     *
+     * @param rsaEntity 由資料庫讀取的簽章記錄
+     * @return 檔案內容；未命中時返回 null
+     */
+    private synchronized byte[] peek(RSAEntity rsaEntity) {
+        Entry entry = entries.get(rsaEntity.getId());
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.fingerprint.equals(fingerprint(rsaEntity))) {
+            logger.debug("Export {} changed since it was cached, invalidating", rsaEntity.getId());
+            remove(rsaEntity.getId());
+            return null;
+        }
+        return entry.content;
+    }
+
+    /**
+     * 保存已通過驗證的檔案內容。超過單筆上限的檔案不快取。
+     *
+     * @param rsaEntity 已通過驗證的簽章記錄
+     * @param content   檔案內容，放入後不可再修改
+     */
+    public synchronized void put(RSAEntity rsaEntity, byte[] content) {
+        if (!accepts((long) content.length)) {
+            return;
+        }
+        remove(rsaEntity.getId());
+        entries.put(rsaEntity.getId(), new Entry(fingerprint(rsaEntity), content));
+        totalBytes += content.length;
+
+        Iterator<Map.Entry<Integer, Entry>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().getValue().content.length;
+            eldest.remove();
+            evictionCounter.increment();
+        }
+    }
+
+    /**
+     * 移除指定簽章記錄的快取。
+     *
+     * @param id 簽章記錄ID
+     */
+    public synchronized void invalidate(Integer id) {
+        remove(id);
+    }
+
+    private void remove(Integer id) {
+        Entry removed = entries.remove(id);
+        if (removed != null) {
+            totalBytes -= removed.content.length;
+        }
+    }
+
+    private synchronized long bytes() {
+        return totalBytes;
+    }
+
+    private synchronized int size() {
+        return entries.size();
+    }
+
+    private double hitRatio() {
+        double hits = hitCounter.count();
+        double total = hits + missCounter.count();
+        return total == 0 ? 0 : hits / total;
+    }
+
+    /**
+     * 簽章相關欄位的 SHA-256，任一欄位變更都會使快取失效。
+     */
+    private static String fingerprint(RSAEntity rsaEntity) {
+        String material = rsaEntity.getAlgorithm() + '\u0000' + rsaEntity.getPub() + '\u0000'
+                + rsaEntity.getSignature() + '\u0000' + rsaEntity.getDigest() + '\u0000' + rsaEntity.getSize();
+        return DigestUtils.sha256Hex(material.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static final class Entry {
+        private final String fingerprint;
+        private final byte[] content;
+
+        Entry(String fingerprint, byte[] content) {
+            this.fingerprint = fingerprint;
+            this.content = content;
+        }
+    }
+}
@@ -1,50 +1,82 @@
 package com.mli.discord.module.message.service;
 
-import java.io.ByteArrayOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.time.format.DateTimeFormatter;
 import java.util.Base64;
 import java.util.List;
+import java.util.function.IntConsumer;
 
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.ibatis.cursor.Cursor;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.mli.discord.module.message.dao.MessageDAO;
 import com.mli.discord.module.message.dao.RSADAO;
-import com.mli.discord.module.message.dto.RoomIdDTO;
-import com.mli.discord.module.message.dto.RoomUserFileDTO;
+import com.mli.discord.module.message.dto.ExportPageDTO;
+import com.mli.discord.module.message.dto.ExportSummaryDTO;
 import com.mli.discord.module.message.dto.UserFileDTO;
 import com.mli.discord.module.message.model.Message;
 import com.mli.discord.module.message.model.RSAEntity;
+import com.mli.discord.module.message.model.VerifiedExport;
+import com.mli.discord.module.message.repository.VerifiedExportCache;
+import com.mli.discord.module.message.utility.SignatureScheme;
 
 @Service
 public class ChatService {
 
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    /** SXSSF 保留在記憶體中的列數，超出的列會寫入暫存檔 */
+    private static final int ROW_ACCESS_WINDOW = 100;
+    /** 回報匯出進度的間隔筆數 */
+    private static final int PROGRESS_INTERVAL = 5000;
+    /** 匯出檔列表的預設與最大單頁筆數 */
+    private static final int DEFAULT_EXPORT_PAGE_SIZE = 20;
+    private static final int MAX_EXPORT_PAGE_SIZE = 100;
+    private static final String[] HEADER_STRINGS = { "Type", "Username", "Time", "Message" };
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
     @Autowired
-    private MessageService messageService;
+    private MessageDAO messageDAO;
     @Autowired
     private RSADAO rsaDAO;
     @Autowired
     private RSAService rsaService;
+    @Autowired
+    private VerifiedExportCache verifiedExportCache;
 
     /**
-     * 生成聊天歷史 Excel 檔案。
+     * 查詢並驗證已保存的聊天歷史匯出檔，返回驗證時實際讀取的內容。
+     * 新版檔案以單次串流讀取內容驗證簽章與 SHA-256：可快取大小的檔案保留在記憶體，較大的檔案寫入暫存檔，
+     * 不將整個檔案載入記憶體；舊版以 Base64 字串保存的檔案則沿用原本的驗證方式。
+     * 下載只輸出返回的內容，驗證與下載之間資料庫記錄即使被修改也不會送出未驗證的內容。
+     * 已驗證且大小在上限內的檔案會保存在 VerifiedExportCache，記錄未變更時不再重複驗證。
      *
      * @param userFileDTO 使用者檔案資料傳輸物件
-     * @return 聊天歷史 Excel 的 byte 陣列
-     * @throws IOException       如果發生 I/O 錯誤
+     * @return 通過驗證的匯出檔；內容在暫存檔時須由 writeChatHistoryExport 或 discardVerifiedExport 釋放
      * @throws SecurityException 如果簽章驗證失敗，代表檔案可能已被竄改
+     * @throws IOException       如果寫入暫存檔時發生 I/O 錯誤
      */
-    @Transactional
-    public byte[] generateChatHistoryExcel(UserFileDTO userFileDTO) throws IOException, SecurityException {
-        logger.info("Start generating chat history Excel for user: {}", userFileDTO.getUsername());
+    public VerifiedExport verifyChatHistoryExport(UserFileDTO userFileDTO) throws SecurityException, IOException {
+        logger.info("Verifying chat history export for user: {}", userFileDTO.getUsername());
 
         RSAEntity rsaEntity = rsaDAO.findByUsernameAndFileName(userFileDTO.getUsername(), userFileDTO.getFileName());
         if (rsaEntity == null) {
@@ -54,115 +86,205 @@ public class ChatService {
             throw new IllegalStateException(errorMessage);
         }
 
-        // Retrieve the Base64 encoded data
-        String base64Data = rsaEntity.getData();
+        byte[] cached = verifiedExportCache.get(rsaEntity);
+        if (cached != null) {
+            // 相同記錄已驗證過，直接由快取提供；持有取得的內容，之後即使被淘汰也不需再查詢快取
+            return new VerifiedExport(rsaEntity, cached, null, cached.length);
+        }
 
-        // Verify the signature with the Base64 encoded data
-        boolean isSignatureVerified = rsaService.verifySignature(
-                base64Data,
-                rsaEntity.getPub(),
-                rsaEntity.getSignature());
+        VerifiedExport verified;
+        if (rsaEntity.getData() != null) {
+            // 舊版檔案：簽章針對 Base64 字串
+            verified = null;
+            if (rsaService.verifySignature(rsaEntity.getData(), rsaEntity.getPub(), rsaEntity.getSignature(),
+                    SignatureScheme.fromAlgorithm(rsaEntity.getAlgorithm()))) {
+                byte[] content = Base64.getDecoder().decode(rsaEntity.getData());
+                verifiedExportCache.put(rsaEntity, content);
+                verified = new VerifiedExport(rsaEntity, content, null, content.length);
+            }
+        } else {
+            verified = verifyStoredContent(rsaEntity);
+        }
 
-        if (!isSignatureVerified) {
+        if (verified == null) {
             String errorMessage = "此檔案可能已被竄改或損毀: " + userFileDTO.getFileName();
             logger.error(errorMessage);
             throw new SecurityException(errorMessage);
         }
-        logger.info("Chat history Excel generated successfully for user: {}", userFileDTO.getUsername());
+        return verified;
+    }
 
-        // If the signature is verified, decode the data to provide as downloadable
-        // content
-        return Base64.getDecoder().decode(base64Data);
+    /**
+     * 將已驗證的匯出檔內容寫入輸出串流，寫入後刪除暫存檔。
+     *
+     * @param verifiedExport 由 verifyChatHistoryExport 返回的已驗證匯出檔
+     * @param outputStream   輸出串流，由呼叫端負責關閉
+     * @throws IOException 如果發生 I/O 錯誤
+     */
+    public void writeChatHistoryExport(VerifiedExport verifiedExport, OutputStream outputStream) throws IOException {
+        try {
+            if (verifiedExport.getContent() != null) {
+                outputStream.write(verifiedExport.getContent());
+            } else {
+                Files.copy(verifiedExport.getFile(), outputStream);
+            }
+            logger.info("Chat history export {} streamed", verifiedExport.getRsaEntity().getName());
+        } finally {
+            discardVerifiedExport(verifiedExport);
+        }
     }
 
     /**
-     * Generates a Base64-encoded Excel file containing the chat history for a
-     * specified room.
+     * 釋放已驗證匯出檔的暫存檔；未呼叫 writeChatHistoryExport 就放棄下載時使用。
      *
-     * @param roomUserFileDTO Contains room ID and user details.
-     * @return Base64 encoded string of the Excel file.
-     * @throws IOException If there is an error during file generation.
+     * @param verifiedExport 已驗證的匯出檔
      */
-    public String generateChatHistoryExcelBase64(RoomUserFileDTO roomUserFileDTO) throws IOException {
-        logger.info("Generating Base64 Excel for chat history for room ID: {}", roomUserFileDTO.getRoomId());
-        try (XSSFWorkbook workbook = new XSSFWorkbook();
-                ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-            XSSFSheet sheet = workbook.createSheet("Chat History");
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    public void discardVerifiedExport(VerifiedExport verifiedExport) {
+        deleteQuietly(verifiedExport.getFile());
+    }
 
-            // 創建header
-            Row headerRow = sheet.createRow(0);
-            String[] headerStrings = { "Type", "Username", "Time", "Message" };
-            for (int i = 0; i < headerStrings.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headerStrings[i]);
+    /**
+     * 以單次串流讀取檔案內容並驗證簽章與 SHA-256，簽章演算法依記錄保存的演算法決定。
+     * 可快取大小的檔案讀入記憶體，驗證通過後放入快取；較大的檔案在讀取時寫入暫存檔，再由暫存檔驗證簽章。
+     *
+     * @return 驗證通過時返回讀取的內容，否則返回 null
+     */
+    private VerifiedExport verifyStoredContent(RSAEntity rsaEntity) throws IOException {
+        SignatureScheme scheme = SignatureScheme.fromAlgorithm(rsaEntity.getAlgorithm());
+        MessageDigest sha256 = DigestUtils.getSha256Digest();
+        boolean cacheable = verifiedExportCache.accepts(rsaEntity.getSize());
+        boolean[] found = { false };
+        byte[][] bytes = { null };
+        Path tempFile = cacheable ? null : Files.createTempFile("chat-history-export-", ".xlsx");
+        try {
+            rsaDAO.streamContent(rsaEntity.getId(), context -> {
+                found[0] = true;
+                try (InputStream content = new DigestInputStream(context.getResultObject().getContent(), sha256)) {
+                    if (cacheable) {
+                        bytes[0] = content.readAllBytes();
+                    } else {
+                        Files.copy(content, tempFile, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (!found[0]) {
+                // 找不到內容列
+                deleteQuietly(tempFile);
+                return null;
             }
-
-            // 填充data
-            List<Message> messages = messageService.getMessagesByRoomId(roomUserFileDTO.getRoomId());
-            int rowNum = 1;
-            for (Message msg : messages) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(msg.getType().toString());
-                row.createCell(1).setCellValue(msg.getUsername());
-                row.createCell(2).setCellValue(msg.getTime().format(formatter));
-                row.createCell(3).setCellValue(msg.getMessage());
+            boolean isVerified;
+            try (InputStream content = cacheable ? new ByteArrayInputStream(bytes[0]) : Files.newInputStream(tempFile)) {
+                isVerified = rsaService.verifySignature(content, rsaEntity.getPub(), rsaEntity.getSignature(), scheme)
+                        && Hex.encodeHexString(sha256.digest()).equalsIgnoreCase(rsaEntity.getDigest());
+            }
+            if (!isVerified) {
+                deleteQuietly(tempFile);
+                return null;
             }
+            if (cacheable) {
+                verifiedExportCache.put(rsaEntity, bytes[0]);
+                return new VerifiedExport(rsaEntity, bytes[0], null, bytes[0].length);
+            }
+            return new VerifiedExport(rsaEntity, null, tempFile, Files.size(tempFile));
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(tempFile);
+            throw e;
+        }
+    }
 
-            workbook.write(outputStream);
-            return Base64.getEncoder().encodeToString(outputStream.toByteArray());
+    private void deleteQuietly(Path tempFile) {
+        if (tempFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(tempFile);
+        } catch (IOException e) {
+            logger.warn("Failed to delete temp file {}", tempFile, e);
         }
     }
 
     /**
-     * Generates an Excel file containing the chat history for a specified room.
+     * 以串流方式產生房間的聊天歷史 Excel 並直接寫入輸出串流。
+     * 訊息經由資料庫游標逐筆讀取，SXSSF 工作簿只在記憶體保留固定列數，
+     * 因此峰值記憶體與房間的訊息數量無關。
      *
-     * @param roomIdDTO Contains the room ID for which the history is to be
-     *                  exported.
-     * @return Byte array of the Excel file.
-     * @throws IOException If there is an error during file generation.
+     * @param roomId       房間ID
+     * @param outputStream 輸出串流，由呼叫端負責關閉
+     * @throws IOException 如果發生 I/O 錯誤
      */
-    public byte[] generateChatHistoryExcel(RoomIdDTO roomIdDTO) throws IOException {
-        logger.info("Generating Excel for chat history for room ID: {}", roomIdDTO.getRoomId());
-        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
-            XSSFSheet sheet = workbook.createSheet("Chat History");
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    @Transactional(readOnly = true)
+    public void writeChatHistoryExcel(Integer roomId, OutputStream outputStream) throws IOException {
+        writeChatHistoryExcel(roomId, outputStream, rowsWritten -> {
+        });
+    }
+
+    /**
+     * 以串流方式產生聊天歷史 Excel，並定期回報已寫入的訊息筆數。
+     *
+     * @param roomId           房間ID
+     * @param outputStream     輸出串流，由呼叫端負責關閉
+     * @param progressListener 每寫入 PROGRESS_INTERVAL 筆訊息時呼叫，參數為累計筆數
+     * @throws IOException 如果發生 I/O 錯誤
+     */
+    @Transactional(readOnly = true)
+    public void writeChatHistoryExcel(Integer roomId, OutputStream outputStream, IntConsumer progressListener)
+            throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try (Cursor<Message> messages = messageDAO.streamMessagesByRoomId(roomId)) {
+            SXSSFSheet sheet = workbook.createSheet("Chat History");
 
             // 創建header
             Row headerRow = sheet.createRow(0);
-            String[] headerStrings = { "Type", "Username", "Time", "Message" };
-            for (int i = 0; i < headerStrings.length; i++) {
+            for (int i = 0; i < HEADER_STRINGS.length; i++) {
                 Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headerStrings[i]);
+                cell.setCellValue(HEADER_STRINGS[i]);
             }
 
             // 填充data
-            List<Message> messages = messageService.getMessagesByRoomId(roomIdDTO.getRoomId());
             int rowNum = 1;
             for (Message msg : messages) {
                 Row row = sheet.createRow(rowNum++);
                 row.createCell(0).setCellValue(msg.getType().toString());
                 row.createCell(1).setCellValue(msg.getUsername());
-                row.createCell(2).setCellValue(msg.getTime().format(formatter));
+                row.createCell(2).setCellValue(msg.getTime().format(TIME_FORMATTER));
                 row.createCell(3).setCellValue(msg.getMessage());
+                if ((rowNum - 1) % PROGRESS_INTERVAL == 0) {
+                    progressListener.accept(rowNum - 1);
+                }
             }
+            progressListener.accept(rowNum - 1);
 
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
             workbook.write(outputStream);
-            return outputStream.toByteArray();
+            logger.info("Streamed {} chat message(s) to Excel for room ID: {}", rowNum - 1, roomId);
+        } finally {
+            // 刪除 SXSSF 產生的暫存檔
+            workbook.dispose();
+            workbook.close();
         }
     }
 
     /**
-     * Retrieves all files associated with a specific username from the RSA entity
-     * records.
+     * 分頁查詢使用者的匯出檔摘要，只包含中繼資料，檔案內容僅在下載時讀取。
      *
-     * @param rsaEntity An entity containing the username.
-     * @return A list of RSAEntity associated with the given username.
+     * @param exportPageDTO 用戶名與分頁條件
+     * @return 匯出檔摘要列表，依建立時間由新到舊排序
+     * @throws IllegalArgumentException 如果頁碼使位移量超出範圍
      */
-    public List<RSAEntity> selectAllFilesByUsername(RSAEntity rsaEntity) {
-        List<RSAEntity> entity = rsaDAO.findByUsername(rsaEntity.getUsername());
-        logger.debug("Retrieved entity: {}", entity);
-        return entity;
+    public List<ExportSummaryDTO> findExportSummaries(ExportPageDTO exportPageDTO) {
+        int pageSize = exportPageDTO.getPageSize() == null || exportPageDTO.getPageSize() <= 0 ? DEFAULT_EXPORT_PAGE_SIZE
+                : Math.min(exportPageDTO.getPageSize(), MAX_EXPORT_PAGE_SIZE);
+        int page = exportPageDTO.getPage() == null ? 0 : Math.max(exportPageDTO.getPage(), 0);
+        // 以 long 計算避免溢位成負的 OFFSET
+        long offset = (long) page * pageSize;
+        if (offset > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Export page out of range: " + page);
+        }
+        List<ExportSummaryDTO> summaries = rsaDAO.findSummariesByUsername(exportPageDTO.getUsername(),
+                (int) offset, pageSize);
+        logger.debug("Retrieved {} export summaries for user {}", summaries.size(), exportPageDTO.getUsername());
+        return summaries;
     }
 }
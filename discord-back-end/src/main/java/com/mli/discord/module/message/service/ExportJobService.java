@@ -0,0 +1,286 @@
+package com.mli.discord.module.message.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.mli.discord.core.exception.ExportJobRejectedException;
+import com.mli.discord.module.message.dto.RoomUserFileDTO;
+import com.mli.discord.module.message.model.ExportJob;
+import com.mli.discord.module.message.model.ExportJob.Status;
+import com.mli.discord.module.message.model.Key;
+import com.mli.discord.module.message.model.RSAEntity;
+import com.mli.discord.module.message.utility.SigningOutputStream;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * 聊天歷史匯出工作服務。
+ * 提交後立即返回工作ID，由有界的背景執行緒池完成產生、簽章與儲存（檔案以二進位保存於 rsa_entity_content），
+ * 進度透過 STOMP 推送至提交者的 /user/queue/export-jobs，也可由狀態端點查詢。
+ *
+ * @Author D3031104
+ * @version 1.0
+ */
+@Service
+public class ExportJobService {
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    /** 進度通知的目的地，實際推送至 /user/{owner}/queue/export-jobs */
+    public static final String JOB_DESTINATION = "/queue/export-jobs";
+
+    @Autowired
+    private ChatService chatService;
+    @Autowired
+    private RSAService rsaService;
+    @Autowired
+    private SimpMessagingTemplate template;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${discord.export.workers:2}")
+    private int workers;
+    @Value("${discord.export.queue-capacity:20}")
+    private int queueCapacity;
+    @Value("${discord.export.per-user:2}")
+    private int perUserLimit;
+    @Value("${discord.export.retention-ms:3600000}")
+    private long retentionMs;
+
+    private ThreadPoolExecutor executor;
+
+    private final ConcurrentHashMap<String, ExportJob> jobs = new ConcurrentHashMap<>();
+    /** 各使用者尚未結束（排隊中或執行中）的工作數 */
+    private final ConcurrentHashMap<String, Integer> activeByUser = new ConcurrentHashMap<>();
+
+    private Counter rejectedCounter;
+    private Counter failedCounter;
+    private Timer jobTimer;
+
+    @PostConstruct
+    public void init() {
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("export-job-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        Gauge.builder("discord.export.jobs.queued", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("discord.export.jobs.running", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("discord.export.jobs.rejected").register(meterRegistry);
+        failedCounter = Counter.builder("discord.export.jobs.failed").register(meterRegistry);
+        jobTimer = Timer.builder("discord.export.jobs.duration").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 提交匯出工作。
+     *
+     * @param owner           提交者（登入使用者名稱）
+     * @param roomUserFileDTO 房間ID、檔名與使用者資料
+     * @return 新建立工作的快照
+     * @throws ExportJobRejectedException 超過使用者或全域並行上限時
+     */
+    public ExportJob submit(String owner, RoomUserFileDTO roomUserFileDTO) {
+        purgeFinishedJobs();
+
+        if (!acquireSlot(owner)) {
+            rejectedCounter.increment();
+            throw new ExportJobRejectedException("已達到每位使用者的匯出工作上限: " + perUserLimit);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        ExportJob job = new ExportJob().jobId(UUID.randomUUID().toString()).owner(owner)
+                .roomId(roomUserFileDTO.getRoomId()).fileName(roomUserFileDTO.getFileName()).status(Status.QUEUED)
+                .progress(0).rowsWritten(0).createdAt(now).updatedAt(now);
+        jobs.put(job.getJobId(), job);
+
+        try {
+            executor.execute(() -> run(job, roomUserFileDTO));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getJobId());
+            releaseSlot(owner);
+            rejectedCounter.increment();
+            throw new ExportJobRejectedException("匯出工作佇列已滿，請稍後再試");
+        }
+        logger.info("Export job {} queued for user {} room {}", job.getJobId(), owner, job.getRoomId());
+        return snapshot(job);
+    }
+
+    /**
+     * 查詢工作狀態。
+     *
+     * @param owner 查詢者，只能查詢自己提交的工作
+     * @param jobId 工作ID
+     * @return 工作快照；不存在或不屬於查詢者時返回 null
+     */
+    public ExportJob findJob(String owner, String jobId) {
+        ExportJob job = jobId == null ? null : jobs.get(jobId);
+        if (job == null || !job.getOwner().equals(owner)) {
+            return null;
+        }
+        return snapshot(job);
+    }
+
+    private void run(ExportJob job, RoomUserFileDTO roomUserFileDTO) {
+        long start = System.nanoTime();
+        Path tempFile = null;
+        try {
+            update(job, Status.GENERATING, 10, null);
+            // 生成鑰匙對
+            Key key = rsaService.createKeyPair();
+            if (key == null) {
+                throw new IllegalStateException("Failed to generate key pair");
+            }
+
+            // 寫入暫存檔的同時計算 SHA-256 與簽名，儲存時再以串流讀取，記憶體用量與檔案大小無關
+            tempFile = Files.createTempFile("chat-history-", ".xlsx");
+            MessageDigest sha256 = DigestUtils.getSha256Digest();
+            String signature;
+            try (SigningOutputStream signingStream = rsaService.signingStream(
+                    new BufferedOutputStream(Files.newOutputStream(tempFile)), key);
+                    OutputStream out = new BufferedOutputStream(new DigestOutputStream(signingStream, sha256))) {
+                chatService.writeChatHistoryExcel(roomUserFileDTO.getRoomId(), out,
+                        rowsWritten -> updateRows(job, rowsWritten));
+                out.flush();
+                signature = signingStream.sign();
+            }
+
+            update(job, Status.SAVING, 80, null);
+            RSAEntity rsaEntity = new RSAEntity();
+            rsaEntity.setUsername(job.getOwner());
+            rsaEntity.setName(roomUserFileDTO.getFileName());
+            rsaEntity.setPub(key.getPublicKey());
+            rsaEntity.setSignature(signature);
+            rsaEntity.setSize(Files.size(tempFile));
+            rsaEntity.setDigest(Hex.encodeHexString(sha256.digest()));
+            rsaEntity.setAlgorithm(key.getAlgorithm());
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(tempFile))) {
+                rsaService.insertSignatureRecord(rsaEntity, in);
+            }
+
+            update(job, Status.COMPLETED, 100, null);
+            logger.info("Export job {} completed", job.getJobId());
+        } catch (Exception e) {
+            logger.error("Export job {} failed", job.getJobId(), e);
+            failedCounter.increment();
+            update(job, Status.FAILED, job.getProgress(), e.getMessage());
+        } finally {
+            deleteTempFile(tempFile);
+            jobTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            releaseSlot(job.getOwner());
+        }
+    }
+
+    /**
+     * 在使用者上限內佔用一個工作名額；計數與檢查在同一個 compute 內完成。
+     *
+     * @return 未超過上限並已佔用時為 true
+     */
+    private boolean acquireSlot(String owner) {
+        boolean[] acquired = { false };
+        activeByUser.compute(owner, (user, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= perUserLimit) {
+                return count;
+            }
+            acquired[0] = true;
+            return current + 1;
+        });
+        return acquired[0];
+    }
+
+    /**
+     * 釋放一個工作名額，計數歸零時移除該使用者的項目。
+     */
+    private void releaseSlot(String owner) {
+        activeByUser.computeIfPresent(owner, (user, count) -> count <= 1 ? null : count - 1);
+    }
+
+    private void deleteTempFile(Path tempFile) {
+        if (tempFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(tempFile);
+        } catch (IOException e) {
+            logger.warn("Failed to delete temp file {}", tempFile, e);
+        }
+    }
+
+    private void update(ExportJob job, Status status, Integer progress, String error) {
+        synchronized (job) {
+            job.status(status).progress(progress).error(error).updatedAt(LocalDateTime.now());
+        }
+        publish(job);
+    }
+
+    private void updateRows(ExportJob job, int rowsWritten) {
+        synchronized (job) {
+            job.rowsWritten(rowsWritten).updatedAt(LocalDateTime.now());
+        }
+        publish(job);
+    }
+
+    private void publish(ExportJob job) {
+        ExportJob snapshot = snapshot(job);
+        try {
+            template.convertAndSendToUser(snapshot.getOwner(), JOB_DESTINATION, snapshot);
+        } catch (Exception e) {
+            // 推送失敗不影響工作本身，客戶端仍可透過狀態端點查詢
+            logger.warn("Failed to publish progress of export job {}", snapshot.getJobId(), e);
+        }
+    }
+
+    private ExportJob snapshot(ExportJob job) {
+        synchronized (job) {
+            return new ExportJob(job.getJobId(), job.getOwner(), job.getRoomId(), job.getFileName(),
+                    job.getStatus(), job.getProgress(), job.getRowsWritten(), job.getError(), job.getCreatedAt(),
+                    job.getUpdatedAt());
+        }
+    }
+
+    /**
+     * 移除已結束且超過保留時間的工作。
+     */
+    private void purgeFinishedJobs() {
+        LocalDateTime threshold = LocalDateTime.now().minus(Duration.ofMillis(retentionMs));
+        jobs.values().removeIf(job -> {
+            synchronized (job) {
+                return job.getStatus().isFinished() && job.getUpdatedAt().isBefore(threshold);
+            }
+        });
+    }
+}
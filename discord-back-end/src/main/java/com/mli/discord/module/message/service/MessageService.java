@@ -1,7 +1,10 @@
 package com.mli.discord.module.message.service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,7 +13,10 @@ import org.springframework.stereotype.Service;
 
 import com.mli.discord.module.message.dao.MessageDAO;
 import com.mli.discord.module.message.dto.MessageDTO;
+import com.mli.discord.module.message.dto.MessageHistoryDTO;
 import com.mli.discord.module.message.model.Message;
+import com.mli.discord.module.message.repository.RecentMessageCache;
+import com.mli.discord.module.message.repository.RoomSequence;
 
 import io.swagger.v3.oas.annotations.Operation;
 
@@ -23,11 +29,24 @@ import io.swagger.v3.oas.annotations.Operation;
 public class MessageService {
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
+    /** 歷史訊息預設單頁筆數 */
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    /** 歷史訊息單頁筆數上限 */
+    private static final int MAX_PAGE_SIZE = 200;
+
     @Autowired
     private MessageDAO messageDAO;
+    @Autowired
+    private MessageWriteBehindService messageWriteBehindService;
+    @Autowired
+    private RecentMessageCache recentMessageCache;
+    @Autowired
+    private RoomSequence roomSequence;
 
     /**
      * 保存訊息
+     * 訊息交由寫後佇列批次寫入，呼叫端不需等待資料庫往返即可廣播。
+     * 接收時即指派房間內的序號；同一房間的訊息由同一條通道依序處理，因此序號順序即廣播順序。
      * 
      * @param messageDTO 待保存的訊息DTO
      * @return Message 已保存的訊息
@@ -47,8 +66,10 @@ public class MessageService {
         message.setMessage(messageDTO.getMessage());
         message.setType(messageDTO.getType());
         message.setTime(LocalDateTime.now());
+        message.setSeq(roomSequence.next(messageDTO.getRoomId()));
 
-        messageDAO.insertMessage(message);
+        messageWriteBehindService.enqueue(message);
+        recentMessageCache.append(message);
         return message;
     }
 
@@ -63,4 +84,63 @@ public class MessageService {
         return messageDAO.findMessagesByRoomId(roomId);
     }
 
+    /**
+     * 以游標分頁查詢房間的歷史訊息，結果依訊息ID遞增排序。
+     * 未提供游標時由近期訊息快取返回最新的一頁；提供 beforeId 時向前翻頁，提供 afterId 時向後補齊；
+     * 提供 fromSeq 時只返回該序號區間內的訊息，供客戶端補齊偵測到的缺漏。
+     * 
+     * @param historyDTO 分頁查詢條件
+     * @return List<Message> 訊息列表
+     */
+    @Operation(summary = "以游標分頁查詢房間的歷史訊息")
+    public List<Message> getMessageHistory(MessageHistoryDTO historyDTO) {
+        Integer roomId = historyDTO.getRoomId();
+        int limit = resolvePageSize(historyDTO.getLimit());
+        if (historyDTO.getFromSeq() != null) {
+            return getMessagesBySeqRange(roomId, historyDTO.getFromSeq(), historyDTO.getToSeq(), limit);
+        }
+        if (historyDTO.getBeforeId() != null) {
+            return messageDAO.findMessagesBefore(roomId, historyDTO.getBeforeId(), limit);
+        }
+        if (historyDTO.getAfterId() != null) {
+            return messageDAO.findMessagesAfter(roomId, historyDTO.getAfterId(), limit);
+        }
+        List<Message> cached = recentMessageCache.latest(roomId, limit);
+        if (cached != null) {
+            return cached;
+        }
+        return messageDAO.findLatestMessages(roomId, limit);
+    }
+
+    /**
+     * 查詢序號區間內的訊息，合併資料庫與寫後佇列中尚未寫入的訊息，依序號遞增排序。
+     */
+    private List<Message> getMessagesBySeqRange(Integer roomId, long fromSeq, Long toSeq, int limit) {
+        long to = toSeq == null ? roomSequence.current(roomId) : toSeq;
+        if (to < fromSeq) {
+            return new ArrayList<>();
+        }
+        // 先取快照再查詢，查詢期間寫入完成的訊息會同時出現在兩者中，以序號去除重複
+        List<Message> pending = messageWriteBehindService.pendingMessages(roomId);
+        Map<Long, Message> bySeq = new TreeMap<>();
+        for (Message message : messageDAO.findMessagesBySeqRange(roomId, fromSeq, to, limit)) {
+            bySeq.put(message.getSeq(), message);
+        }
+        for (Message message : pending) {
+            Long seq = message.getSeq();
+            if (seq != null && seq >= fromSeq && seq <= to) {
+                bySeq.putIfAbsent(seq, message);
+            }
+        }
+        List<Message> messages = new ArrayList<>(bySeq.values());
+        return messages.size() > limit ? new ArrayList<>(messages.subList(0, limit)) : messages;
+    }
+
+    private int resolvePageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
 }
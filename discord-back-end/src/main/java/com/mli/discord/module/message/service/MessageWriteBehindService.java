@@ -0,0 +1,168 @@
+package com.mli.discord.module.message.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.mli.discord.core.util.WriteBehindQueue;
+import com.mli.discord.module.message.dao.MessageDAO;
+import com.mli.discord.module.message.model.Message;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 訊息寫後持久化服務。
+ * 訊息先放入有界佇列，再由背景執行緒以多筆 INSERT 批次寫入資料庫，
+ * 使 STOMP 入站執行緒不必等待 JDBC 往返。
+ *
+ * @Author D3031104
+ * @version 1.0
+ */
+@Service
+public class MessageWriteBehindService {
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    /** SQL Server 單一語句最多 2100 個參數，每筆訊息佔 6 個 */
+    private static final int MAX_ROWS_PER_INSERT = 350;
+
+    @Autowired
+    private MessageDAO messageDAO;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${discord.message.write-behind.capacity:10000}")
+    private int capacity;
+    @Value("${discord.message.write-behind.batch-size:200}")
+    private int batchSize;
+    @Value("${discord.message.write-behind.flush-interval-ms:100}")
+    private long flushIntervalMs;
+    @Value("${discord.message.write-behind.offer-timeout-ms:50}")
+    private long offerTimeoutMs;
+
+    private WriteBehindQueue<Message> queue;
+
+    /** 各房間已接受但尚未寫入完成的訊息 */
+    private final ConcurrentHashMap<Integer, Queue<Message>> pendingByRoom = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        queue = new WriteBehindQueue<>("discord.messages.write-behind", capacity,
+                Math.min(batchSize, MAX_ROWS_PER_INSERT), flushIntervalMs, offerTimeoutMs, this::flush,
+                meterRegistry);
+        queue.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        queue.shutdown();
+    }
+
+    /**
+     * 將訊息放入寫後佇列。
+     * 佇列已滿且等待逾時時，改為在呼叫端執行緒同步寫入，藉此對上游施加背壓且不遺失訊息。
+     *
+     * @param message 待寫入的訊息
+     */
+    public void enqueue(Message message) {
+        // 在 compute 內加入，避免與移除空佇列的 computeIfPresent 交錯而加入已被移除的佇列
+        pendingByRoom.compute(message.getRoomId(), (roomId, pending) -> {
+            Queue<Message> roomPending = pending == null ? new ConcurrentLinkedQueue<>() : pending;
+            roomPending.add(message);
+            return roomPending;
+        });
+        if (!queue.offer(message)) {
+            logger.warn("Write-behind queue saturated, inserting message synchronously for room {}",
+                    message.getRoomId());
+            try {
+                messageDAO.insertMessage(message);
+            } finally {
+                removePending(Collections.singletonList(message));
+            }
+        }
+    }
+
+    /**
+     * 取得指定房間已接受但尚未寫入完成的訊息快照。
+     *
+     * @param roomId 房間ID
+     * @return 待寫入訊息列表
+     */
+    public List<Message> pendingMessages(Integer roomId) {
+        Queue<Message> pending = pendingByRoom.get(roomId);
+        return pending == null ? Collections.emptyList() : new ArrayList<>(pending);
+    }
+
+    /**
+     * 批次寫入訊息；多筆 INSERT 失敗時逐筆重試，避免單筆錯誤拖累整個批次。
+     * IDENTITY 的指派順序與 OUTPUT 的列順序皆無保證，因此依每列的 (roomId, seq) 將產生的ID回填到對應的訊息。
+     *
+     * @param batch 訊息批次
+     */
+    private void flush(List<Message> batch) {
+        try {
+            List<Message> inserted = messageDAO.insertMessages(batch);
+            Map<String, Message> bySeq = new HashMap<>();
+            for (Message message : batch) {
+                if (message.getSeq() != null) {
+                    bySeq.put(insertedKey(message), message);
+                }
+            }
+            for (Message row : inserted) {
+                Message message = bySeq.remove(insertedKey(row));
+                if (message != null) {
+                    message.setId(row.getId());
+                }
+            }
+            if (!bySeq.isEmpty()) {
+                logger.warn("Could not match generated ids for {} of {} message(s)", bySeq.size(), batch.size());
+            }
+        } catch (Exception e) {
+            logger.error("Batch insert of {} message(s) failed, retrying row by row", batch.size(), e);
+            for (Message message : batch) {
+                try {
+                    messageDAO.insertMessage(message);
+                } catch (Exception rowError) {
+                    logger.error("Dropping message that could not be persisted: {}", message, rowError);
+                }
+            }
+        } finally {
+            removePending(batch);
+        }
+    }
+
+    private static String insertedKey(Message message) {
+        return message.getRoomId() + ":" + message.getSeq();
+    }
+
+    /**
+     * 一次移除整批已寫入的訊息，每個房間只走訪一次佇列；房間已無待寫入訊息時移除其佇列。
+     * 以物件識別比對（Message 的 equals 依欄位比較，ID 回填後會改變）。
+     */
+    private void removePending(List<Message> messages) {
+        Map<Integer, Set<Message>> byRoom = new HashMap<>();
+        for (Message message : messages) {
+            byRoom.computeIfAbsent(message.getRoomId(), roomId -> Collections.newSetFromMap(new IdentityHashMap<>()))
+                    .add(message);
+        }
+        byRoom.forEach((roomId, written) -> pendingByRoom.computeIfPresent(roomId, (k, pending) -> {
+            pending.removeIf(written::contains);
+            return pending.isEmpty() ? null : pending;
+        }));
+    }
+}
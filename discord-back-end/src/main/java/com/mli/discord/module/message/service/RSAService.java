@@ -1,5 +1,10 @@
 package com.mli.discord.module.message.service;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -12,7 +17,10 @@ import org.springframework.transaction.annotation.Transactional;
 import com.mli.discord.module.message.dao.RSADAO;
 import com.mli.discord.module.message.model.Key;
 import com.mli.discord.module.message.model.RSAEntity;
+import com.mli.discord.module.message.utility.KeyPairPool;
 import com.mli.discord.module.message.utility.RSAUtil;
+import com.mli.discord.module.message.utility.SignatureScheme;
+import com.mli.discord.module.message.utility.SigningOutputStream;
 
 @Service
 public class RSAService {
@@ -22,34 +30,36 @@ public class RSAService {
 	private RSADAO rsaDAO;
 	@Autowired
 	private RSAUtil rsaUtil;
+	@Autowired
+	private KeyPairPool keyPairPool;
 
-	// 生成鑰匙對
+	// 生成鑰匙對（優先由預先產生的鑰匙對池取用）
 	public Key createKeyPair() {
-		if (rsaUtil == null) {
-			logger.error("RSAUtil not properly injected");
-			return null;
+		Key key = keyPairPool.take();
+		if (key == null) {
+			logger.error("Failed to generate key pair");
 		}
-		Key key = new Key();
-		rsaUtil.createRSAKey(key);
 		return key;
 	}
 
-	// 使用私鑰進行數字簽名
-	public String signData(String body, String privateKey) {
-		if (privateKey == null || privateKey.trim().isEmpty()) {
+	// 使用私鑰進行數字簽名，簽章演算法依鑰匙對記錄的演算法決定
+	public String signData(String body, Key key) {
+		if (key == null || key.getPrivateKey() == null || key.getPrivateKey().trim().isEmpty()) {
 			logger.error("Private key is not provided or is invalid");
 			return null;
 		}
-		return rsaUtil.sign(body, privateKey);
+		return rsaUtil.sign(SignatureScheme.fromAlgorithm(key.getAlgorithm()),
+				ByteBuffer.wrap(body.getBytes(StandardCharsets.UTF_8)), key.getPrivateKey());
 	}
 
 	// 使用公鑰驗證簽名
-	public boolean verifySignature(String body, String publicKey, String signature) {
+	public boolean verifySignature(String body, String publicKey, String signature, SignatureScheme scheme) {
 		if (publicKey == null || publicKey.trim().isEmpty() || signature == null || signature.trim().isEmpty()) {
 			logger.error("Public key or signature is not provided or is invalid");
 			return false;
 		}
-		boolean verifyFlag = rsaUtil.verify(body, publicKey, signature);
+		boolean verifyFlag = rsaUtil.verify(scheme, ByteBuffer.wrap(body.getBytes(StandardCharsets.UTF_8)), publicKey,
+				signature);
 		if (verifyFlag) {
 			logger.info("驗證成功");
 		} else {
@@ -58,8 +68,40 @@ public class RSAService {
 		return verifyFlag;
 	}
 
+	// 以串流方式使用私鑰進行數字簽名
+	public String signData(InputStream body, String privateKey, SignatureScheme scheme) {
+		if (privateKey == null || privateKey.trim().isEmpty()) {
+			logger.error("Private key is not provided or is invalid");
+			return null;
+		}
+		return rsaUtil.sign(scheme, body, privateKey);
+	}
+
+	/**
+	 * 建立邊寫入邊簽名的輸出串流，簽章演算法依鑰匙對記錄的演算法決定。
+	 *
+	 * @param out 實際寫入的輸出串流
+	 * @param key 鑰匙對
+	 * @return 簽名輸出串流，寫入完成後以 sign() 取得簽名
+	 * @throws GeneralSecurityException 如果私鑰無效
+	 */
+	public SigningOutputStream signingStream(OutputStream out, Key key) throws GeneralSecurityException {
+		return rsaUtil.signingStream(SignatureScheme.fromAlgorithm(key.getAlgorithm()), out, key.getPrivateKey());
+	}
+
+	// 以串流方式使用公鑰驗證簽名
+	public boolean verifySignature(InputStream body, String publicKey, String signature, SignatureScheme scheme) {
+		if (publicKey == null || publicKey.trim().isEmpty() || signature == null || signature.trim().isEmpty()) {
+			logger.error("Public key or signature is not provided or is invalid");
+			return false;
+		}
+		boolean verifyFlag = rsaUtil.verify(scheme, body, publicKey, signature);
+		logger.info(verifyFlag ? "驗證成功" : "驗證失敗");
+		return verifyFlag;
+	}
+
 	/**
-	 * 插入新的签名记录到数据库。
+	 * 插入新的签名记录到数据库（檔案內容保存在 data 欄位的舊版格式）。
 	 * 
 	 * @param record 要插入的签名记录对象。
 	 */
@@ -71,6 +113,23 @@ public class RSAService {
 			logger.error("Insertion failed: file name already used.");
 			throw new RuntimeException("File name '" + record.getName() + "' has already been used.", e);
 		}
+	}
+
+	/**
+	 * 插入新的签名记录到数据库，檔案內容以串流寫入 rsa_entity_content。
+	 * 
+	 * @param record  要插入的签名记录对象（只含中繼資料）。
+	 * @param content 檔案內容串流
+	 */
+	@Transactional
+	public void insertSignatureRecord(RSAEntity record, InputStream content) {
+		try {
+			rsaDAO.insertRSA(record);
+			rsaDAO.insertContent(record.getId(), content);
+		} catch (DuplicateKeyException e) {
+			logger.error("Insertion failed: file name already used.");
+			throw new RuntimeException("File name '" + record.getName() + "' has already been used.", e);
+		}
 
 	}
 
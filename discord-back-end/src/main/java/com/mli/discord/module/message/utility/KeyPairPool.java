@@ -0,0 +1,140 @@
+package com.mli.discord.module.message.utility;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.mli.discord.module.message.model.Key;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * 預先產生的鑰匙對池。
+ * 背景執行緒以最低優先權持續補滿，匯出時直接取用，不必在請求路徑上產生鑰匙對；
+ * 池為空時改由呼叫端執行緒同步產生。
+ *
+ * @Author D3031104
+ * @version 1.0
+ */
+@Component
+public class KeyPairPool {
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired
+    private RSAUtil rsaUtil;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${discord.export.key-pool.size:8}")
+    private int poolSize;
+    @Value("${discord.export.key-pool.key-size:" + RSAUtil.DEFAULT_KEY_SIZE + "}")
+    private int keySize;
+    @Value("${discord.export.signature-scheme:SHA256withECDSA}")
+    private String signatureScheme;
+
+    private SignatureScheme scheme;
+
+    private BlockingQueue<Key> pool;
+    private Thread refiller;
+
+    private Timer waitTimer;
+    private Counter missCounter;
+
+    @PostConstruct
+    public void init() {
+        scheme = SignatureScheme.fromAlgorithm(signatureScheme);
+        if (!scheme.isAvailable()) {
+            // 例如在 JDK 15 以前設定 Ed25519
+            logger.warn("Signature scheme {} is not available, falling back to {}", scheme.getAlgorithm(),
+                    SignatureScheme.SHA256_WITH_ECDSA.getAlgorithm());
+            scheme = SignatureScheme.SHA256_WITH_ECDSA;
+        }
+        logger.info("Export signature scheme: {}", scheme.getAlgorithm());
+
+        pool = new ArrayBlockingQueue<>(poolSize);
+        Gauge.builder("discord.export.key-pool.depth", pool, BlockingQueue::size).register(meterRegistry);
+        waitTimer = Timer.builder("discord.export.key-pool.wait").register(meterRegistry);
+        missCounter = Counter.builder("discord.export.key-pool.misses").register(meterRegistry);
+
+        refiller = new Thread(this::refill, "key-pair-pool-refiller");
+        refiller.setDaemon(true);
+        refiller.setPriority(Thread.MIN_PRIORITY);
+        refiller.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refiller.interrupt();
+    }
+
+    /**
+     * 取得一組鑰匙對，每組只會被取用一次。池為空時於呼叫端執行緒同步產生。
+     *
+     * @return 鑰匙對；產生失敗時返回 null
+     */
+    public Key take() {
+        long start = System.nanoTime();
+        Key key = pool.poll();
+        if (key == null) {
+            missCounter.increment();
+            logger.debug("Key pair pool empty, generating synchronously");
+            key = generate();
+        }
+        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return key;
+    }
+
+    /**
+     * 取得新鑰匙對使用的簽章演算法。
+     *
+     * @return 簽章演算法
+     */
+    public SignatureScheme getScheme() {
+        return scheme;
+    }
+
+    /**
+     * 取得目前池中的鑰匙對數量。
+     *
+     * @return 池深度
+     */
+    public int depth() {
+        return pool.size();
+    }
+
+    private void refill() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Key key = generate();
+                if (key == null) {
+                    // 產生失敗時稍後重試，避免空轉
+                    TimeUnit.SECONDS.sleep(1);
+                    continue;
+                }
+                // 池已滿時阻塞，直到有鑰匙對被取用
+                pool.put(key);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        logger.info("Key pair pool refiller stopped");
+    }
+
+    private Key generate() {
+        Key key = new Key();
+        rsaUtil.createKey(key, scheme, keySize);
+        return key.getPrivateKey() != null ? key : null;
+    }
+}
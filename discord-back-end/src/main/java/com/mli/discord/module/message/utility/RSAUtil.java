@@ -1,15 +1,23 @@
 package com.mli.discord.module.message.utility;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.KeyFactory;
 import java.security.KeyPair;
-import java.security.KeyPairGenerator;
 import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.security.Signature;
-import java.security.interfaces.RSAPrivateKey;
-import java.security.interfaces.RSAPublicKey;
+import java.security.SignatureException;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.security.spec.X509EncodedKeySpec;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.apache.commons.codec.binary.Base64;
 import org.slf4j.Logger;
@@ -21,109 +29,229 @@ import com.mli.discord.module.message.model.Key;
 @Component
 public class RSAUtil {
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
-    private String encryptionAlgorithm = "RSA";
-    private String signAlgorithm = "MD5withRSA";
+    private static final int BUFFER_SIZE = 8192;
+    /** 預設 RSA 金鑰長度 (bits) */
+    public static final int DEFAULT_KEY_SIZE = 1024;
+    /** 解析後公鑰的快取上限 */
+    private static final int PUBLIC_KEY_CACHE_SIZE = 256;
+
+    /** KeyFactory 與 Signature 皆非執行緒安全，每個執行緒依演算法各保留一份重複使用 */
+    private final ThreadLocal<Map<SignatureScheme, KeyFactory>> keyFactories = ThreadLocal
+            .withInitial(() -> new EnumMap<>(SignatureScheme.class));
+    private final ThreadLocal<Map<SignatureScheme, Signature>> signatures = ThreadLocal
+            .withInitial(() -> new EnumMap<>(SignatureScheme.class));
 
     /**
-     * 生成对应的 与我通信的公钥和私钥
+     * 公鑰會被重複用於驗證同一份匯出檔，解析結果以 LRU 快取保存。
+     * 私鑰每次匯出都是新產生且只使用一次，不做快取以免在記憶體中保留私鑰。
+     */
+    private final Map<String, PublicKey> publicKeys = Collections
+            .synchronizedMap(new LinkedHashMap<String, PublicKey>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PublicKey> eldest) {
+                    return size() > PUBLIC_KEY_CACHE_SIZE;
+                }
+            });
+
+    /**
+     * 生成对应的 与我通信的公钥和私钥 (MD5withRSA)
      * 
      * @return
      */
     public void createRSAKey(Key entity) {
-        try {
-            // 创建KeyPairGenerator 指定算法为RSA，用于生成对应的公钥和私钥
-            KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance(encryptionAlgorithm);
-            // 指定字节长度
-            keyPairGenerator.initialize(1024);
+        createKey(entity, SignatureScheme.MD5_WITH_RSA, DEFAULT_KEY_SIZE);
+    }
 
+    /**
+     * 生成指定簽章演算法的公钥和私钥，並記錄演算法名稱
+     *
+     * @param entity     存放鑰匙對的物件
+     * @param scheme     簽章演算法
+     * @param rsaKeySize RSA 金鑰長度 (bits)，其他演算法忽略
+     */
+    public void createKey(Key entity, SignatureScheme scheme, int rsaKeySize) {
+        try {
             // 秘钥生成器
-            KeyPair keyPair = keyPairGenerator.generateKeyPair();
+            KeyPair keyPair = scheme.newKeyPairGenerator(rsaKeySize).generateKeyPair();
 
-            // 公钥
-            RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
-            // 进行Base64编码存入
-            String clientPublicKey = Base64.encodeBase64String(publicKey.getEncoded());
-            logger.info("生成的clientPublicKey是: {}", clientPublicKey);
+            // 公钥，进行Base64编码存入
+            String clientPublicKey = Base64.encodeBase64String(keyPair.getPublic().getEncoded());
+            logger.debug("生成的clientPublicKey是: {}", clientPublicKey);
             entity.setPublicKey(clientPublicKey);
 
-            // 私钥
-            RSAPrivateKey privateKey = (RSAPrivateKey) keyPair.getPrivate();
-            // 进行Base64编码存入
-            String clientPrivateKey = Base64.encodeBase64String(privateKey.getEncoded());
-            logger.info("生成的clientPrivateKey是: {}", clientPrivateKey);
-            entity.setPrivateKey(clientPrivateKey);
+            // 私钥，进行Base64编码存入
+            entity.setPrivateKey(Base64.encodeBase64String(keyPair.getPrivate().getEncoded()));
+            entity.setAlgorithm(scheme.getAlgorithm());
         } catch (Exception e) {
-            logger.error("生成秘钥失败");
-            e.printStackTrace();
+            logger.error("生成秘钥失败", e);
         }
     }
 
     /**
-     * 利用私钥信息生成数字签名
+     * 利用私钥信息生成数字签名 (MD5withRSA)
      * 
      * @param data       入参数据body
      * @param privateKey 私钥
-     * @return
+     * @return 签名；失敗時返回 null
      */
     public String sign(String data, String privateKey) {
+        return sign(SignatureScheme.MD5_WITH_RSA, ByteBuffer.wrap(data.getBytes(StandardCharsets.UTF_8)),
+                privateKey);
+    }
+
+    /**
+     * 利用公钥校验数字签名 (MD5withRSA)
+     * 
+     * @param data      入参数据body
+     * @param publicKey 公钥
+     * @param sign      签名
+     * @return 驗證結果
+     */
+    public boolean verify(String data, String publicKey, String sign) {
+        return verify(SignatureScheme.MD5_WITH_RSA, ByteBuffer.wrap(data.getBytes(StandardCharsets.UTF_8)),
+                publicKey, sign);
+    }
+
+    /**
+     * 利用私钥对 ByteBuffer 的剩餘內容生成数字签名
+     *
+     * @param scheme     簽章演算法
+     * @param data       入参数据
+     * @param privateKey 私钥
+     * @return 签名；失敗時返回 null
+     */
+    public String sign(SignatureScheme scheme, ByteBuffer data, String privateKey) {
         try {
-            // 入参数据body字节数组
-            byte[] dataBytes = data.getBytes();
-            // 获取私钥秘钥字节数组
-            byte[] keyBytes = Base64.decodeBase64(privateKey);
-            // 使用给定的编码密钥创建一个新的PKCS8EncodedKeySpec。
-            // PKCS8EncodedKeySpec 是 PKCS#8标准作为密钥规范管理的编码格式
-            PKCS8EncodedKeySpec keySpec = new PKCS8EncodedKeySpec(keyBytes);
-            // 实例化KeyFactory,指定为加密算法 为 RSA
-            KeyFactory keyFactory = KeyFactory.getInstance(encryptionAlgorithm);
-            // 获得PrivateKey对象
-            PrivateKey privateKey1 = keyFactory.generatePrivate(keySpec);
-            // 用私钥对信息生成数字签名，指定签名算法为 MD5withRSA
-            Signature signature = Signature.getInstance(signAlgorithm);
-            // 初始化签名
-            signature.initSign(privateKey1);
-            // 数据body带入
-            signature.update(dataBytes);
-            // 对签名进行Base64编码
+            Signature signature = signature(scheme);
+            signature.initSign(parsePrivateKey(scheme, privateKey));
+            signature.update(data);
             return Base64.encodeBase64String(signature.sign());
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.error("签名失败", e);
         }
         return null;
     }
 
     /**
-     * 利用公钥校验数字签名
-     * 
-     * @param data      入参数据body
+     * 利用公钥校验 ByteBuffer 剩餘內容的数字签名
+     *
+     * @param scheme    簽章演算法
+     * @param data      入参数据
      * @param publicKey 公钥
      * @param sign      签名
-     * @return
+     * @return 驗證結果
      */
-    public boolean verify(String data, String publicKey, String sign) {
+    public boolean verify(SignatureScheme scheme, ByteBuffer data, String publicKey, String sign) {
         try {
-            // 入参数据body字节数组
-            byte[] dataBytes = data.getBytes("UTF-8");
-            // 获取公钥秘钥字节数组
-            byte[] keyBytes = Base64.decodeBase64(publicKey);
-            // 使用给定的编码密钥创建一个新的X509EncodedKeySpec
-            // X509EncodedKeySpec是基于X.509证书提前的公钥，一种java秘钥规范
-            X509EncodedKeySpec x509EncodedKeySpec = new X509EncodedKeySpec(keyBytes);
-            // 实例化KeyFactory,指定为加密算法 为 RSA
-            KeyFactory keyFactory = KeyFactory.getInstance(encryptionAlgorithm);
-            // 获取publicKey对象
-            PublicKey publicKey1 = keyFactory.generatePublic(x509EncodedKeySpec);
-            // 用私钥对信息生成数字签名，指定签名算法为 MD5withRSA
-            Signature signature = Signature.getInstance(signAlgorithm);
-            // 带入公钥进行验证
-            signature.initVerify(publicKey1);
-            // 数据body带入
-            signature.update(dataBytes);
-            // 验证签名
+            Signature signature = signature(scheme);
+            signature.initVerify(parsePublicKey(scheme, publicKey));
+            signature.update(data);
+            return signature.verify(Base64.decodeBase64(sign));
+        } catch (Exception e) {
+            logger.error("验证签名失败", e);
+            return false;
+        }
+    }
+
+    /**
+     * 以串流方式利用私钥生成数字签名，不需將整個內容載入記憶體
+     *
+     * @param scheme     簽章演算法
+     * @param data       入参数据串流
+     * @param privateKey 私钥
+     * @return 签名；失敗時返回 null
+     */
+    public String sign(SignatureScheme scheme, InputStream data, String privateKey) {
+        try {
+            Signature signature = signature(scheme);
+            signature.initSign(parsePrivateKey(scheme, privateKey));
+            update(signature, data);
+            return Base64.encodeBase64String(signature.sign());
+        } catch (Exception e) {
+            logger.error("串流簽名失敗", e);
+        }
+        return null;
+    }
+
+    /**
+     * 以串流方式利用公钥校验数字签名
+     *
+     * @param scheme    簽章演算法
+     * @param data      入参数据串流
+     * @param publicKey 公钥
+     * @param sign      签名
+     * @return 驗證結果
+     */
+    public boolean verify(SignatureScheme scheme, InputStream data, String publicKey, String sign) {
+        try {
+            Signature signature = signature(scheme);
+            signature.initVerify(parsePublicKey(scheme, publicKey));
+            update(signature, data);
             return signature.verify(Base64.decodeBase64(sign));
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.error("串流驗證簽名失敗", e);
             return false;
         }
     }
+
+    /**
+     * 建立邊寫入邊簽名的輸出串流，寫入完成後呼叫 SigningOutputStream.sign() 取得签名。
+     * 串流的生命週期可能跨越其他簽名呼叫，因此使用獨立的 Signature 而非執行緒共用的實例。
+     *
+     * @param scheme     簽章演算法
+     * @param out        實際寫入的輸出串流
+     * @param privateKey 私钥
+     * @return 簽名輸出串流
+     * @throws GeneralSecurityException 如果私钥無效
+     */
+    public SigningOutputStream signingStream(SignatureScheme scheme, OutputStream out, String privateKey)
+            throws GeneralSecurityException {
+        Signature signature = Signature.getInstance(scheme.getAlgorithm());
+        signature.initSign(parsePrivateKey(scheme, privateKey));
+        return new SigningOutputStream(out, signature);
+    }
+
+    private Signature signature(SignatureScheme scheme) throws GeneralSecurityException {
+        Map<SignatureScheme, Signature> cache = signatures.get();
+        Signature signature = cache.get(scheme);
+        if (signature == null) {
+            signature = Signature.getInstance(scheme.getAlgorithm());
+            cache.put(scheme, signature);
+        }
+        return signature;
+    }
+
+    private KeyFactory keyFactory(SignatureScheme scheme) throws GeneralSecurityException {
+        Map<SignatureScheme, KeyFactory> cache = keyFactories.get();
+        KeyFactory keyFactory = cache.get(scheme);
+        if (keyFactory == null) {
+            keyFactory = KeyFactory.getInstance(scheme.getKeyAlgorithm());
+            cache.put(scheme, keyFactory);
+        }
+        return keyFactory;
+    }
+
+    private PrivateKey parsePrivateKey(SignatureScheme scheme, String privateKey) throws GeneralSecurityException {
+        // PKCS8EncodedKeySpec 是 PKCS#8标准作为密钥规范管理的编码格式
+        return keyFactory(scheme).generatePrivate(new PKCS8EncodedKeySpec(Base64.decodeBase64(privateKey)));
+    }
+
+    private PublicKey parsePublicKey(SignatureScheme scheme, String publicKey) throws GeneralSecurityException {
+        String cacheKey = scheme.name() + ':' + publicKey;
+        PublicKey key = publicKeys.get(cacheKey);
+        if (key == null) {
+            // X509EncodedKeySpec是基于X.509证书提前的公钥，一种java秘钥规范
+            key = keyFactory(scheme).generatePublic(new X509EncodedKeySpec(Base64.decodeBase64(publicKey)));
+            publicKeys.put(cacheKey, key);
+        }
+        return key;
+    }
+
+    private void update(Signature signature, InputStream data) throws IOException, SignatureException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = data.read(buffer)) != -1) {
+            signature.update(buffer, 0, read);
+        }
+    }
 }
@@ -0,0 +1,99 @@
+package com.mli.discord.module.message.utility;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+
+/**
+ * 匯出檔支援的簽章演算法。
+ * 名稱與 JCA 的 Signature 演算法名稱一致，並保存在 rsa_entity.algorithm，
+ * 讓舊的 MD5withRSA 記錄在預設演算法變更後仍可驗證。
+ *
+ * @Author D3031104
+ * @version 1.0
+ */
+public enum SignatureScheme {
+    /** 舊版格式，只用於驗證既有記錄 */
+    MD5_WITH_RSA("MD5withRSA", "RSA"),
+    /** ECDSA P-256，Java 11 即可使用 */
+    SHA256_WITH_ECDSA("SHA256withECDSA", "EC"),
+    /** Ed25519，需要 JDK 15 以上 */
+    ED25519("Ed25519", "Ed25519");
+
+    private final String algorithm;
+    private final String keyAlgorithm;
+
+    SignatureScheme(String algorithm, String keyAlgorithm) {
+        this.algorithm = algorithm;
+        this.keyAlgorithm = keyAlgorithm;
+    }
+
+    /**
+     * @return JCA Signature 演算法名稱
+     */
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * @return JCA KeyFactory / KeyPairGenerator 演算法名稱
+     */
+    public String getKeyAlgorithm() {
+        return keyAlgorithm;
+    }
+
+    /**
+     * 建立並初始化此演算法的 KeyPairGenerator。
+     *
+     * @param rsaKeySize RSA 金鑰長度 (bits)，其他演算法忽略
+     * @return KeyPairGenerator
+     * @throws GeneralSecurityException 如果執行環境不支援此演算法
+     */
+    public KeyPairGenerator newKeyPairGenerator(int rsaKeySize) throws GeneralSecurityException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance(keyAlgorithm);
+        switch (this) {
+            case MD5_WITH_RSA:
+                generator.initialize(rsaKeySize);
+                break;
+            case SHA256_WITH_ECDSA:
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+                break;
+            default:
+                break;
+        }
+        return generator;
+    }
+
+    /**
+     * 目前的執行環境是否支援此演算法。
+     *
+     * @return 支援時返回 true
+     */
+    public boolean isAvailable() {
+        try {
+            KeyPairGenerator.getInstance(keyAlgorithm);
+            return true;
+        } catch (GeneralSecurityException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 依 JCA 演算法名稱取得對應的簽章演算法；未記錄演算法的舊資料視為 MD5withRSA。
+     *
+     * @param algorithm JCA Signature 演算法名稱
+     * @return 簽章演算法
+     * @throws IllegalArgumentException 如果不支援此演算法名稱
+     */
+    public static SignatureScheme fromAlgorithm(String algorithm) {
+        if (algorithm == null || algorithm.isEmpty()) {
+            return MD5_WITH_RSA;
+        }
+        for (SignatureScheme scheme : values()) {
+            if (scheme.algorithm.equalsIgnoreCase(algorithm)) {
+                return scheme;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported signature algorithm: " + algorithm);
+    }
+}
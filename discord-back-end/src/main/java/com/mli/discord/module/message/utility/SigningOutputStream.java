@@ -0,0 +1,54 @@
+package com.mli.discord.module.message.utility;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.Signature;
+import java.security.SignatureException;
+
+import org.apache.commons.codec.binary.Base64;
+
+/**
+ * 寫入時同步更新數位簽章的輸出串流，讓匯出檔可以邊產生邊簽名。
+ *
+ * @Author D3031104
+ * @version 1.0
+ */
+public class SigningOutputStream extends FilterOutputStream {
+    private final Signature signature;
+
+    SigningOutputStream(OutputStream out, Signature signature) {
+        super(out);
+        this.signature = signature;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        try {
+            signature.update((byte) b);
+        } catch (SignatureException e) {
+            throw new IOException(e);
+        }
+        out.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        try {
+            signature.update(b, off, len);
+        } catch (SignatureException e) {
+            throw new IOException(e);
+        }
+        out.write(b, off, len);
+    }
+
+    /**
+     * 取得目前為止寫入內容的签名。
+     *
+     * @return Base64 編碼的签名
+     * @throws SignatureException 如果簽名失敗
+     */
+    public String sign() throws SignatureException {
+        return Base64.encodeBase64String(signature.sign());
+    }
+}
@@ -0,0 +1,112 @@
+package com.mli.discord.core.config.security;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import javax.servlet.Filter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mli.discord.module.login.controller.UserController;
+import com.mli.discord.module.login.dao.JwtRevocationDAO;
+import com.mli.discord.module.login.dao.UserRepository;
+import com.mli.discord.module.login.dto.AuthenticationResponse;
+import com.mli.discord.module.login.filter.JwtAuthenticationFilter;
+import com.mli.discord.module.login.repository.TokenRepository;
+import com.mli.discord.module.login.repository.UserDetailsCache;
+import com.mli.discord.module.login.service.JwtAuditService;
+import com.mli.discord.module.login.service.JwtRevocationService;
+import com.mli.discord.module.login.service.JwtService;
+import com.mli.discord.module.login.service.UserService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 經過實際的安全過濾器鏈測試登入與登出；資料庫相關的元件以 mock 取代。
+ */
+@SpringJUnitWebConfig(SecurityConfigTest.TestConfig.class)
+class SecurityConfigTest {
+
+    private final UserDetails user = new User("alice", new BCryptPasswordEncoder().encode("password"),
+            AuthorityUtils.createAuthorityList("NORMAL"));
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private Filter springSecurityFilterChain;
+    @Autowired
+    private JwtService jwtService;
+
+    @MockBean
+    private UserService userService;
+    @MockBean
+    private UserRepository userRepository;
+    @MockBean
+    private JwtAuditService jwtAuditService;
+    @MockBean
+    private JwtRevocationDAO jwtRevocationDAO;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).addFilters(springSecurityFilterChain).build();
+        when(userService.loadUserByUsername(anyString())).thenReturn(user);
+        // 與 UserService 相同，登入成功後簽發並記錄存取令牌
+        when(userService.processSuccessfulAuthentication(anyString())).thenAnswer(invocation -> ResponseEntity
+                .ok(new AuthenticationResponse("Success", jwtService.generateAndPersistToken(user))));
+    }
+
+    @Test
+    void testLogoutRevokesBearerTokenAndIssuesLogoutToken() throws Exception {
+        MvcResult login = mockMvc.perform(post("/user/login").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\": \"alice\", \"password\": \"password\"}"))
+                .andExpect(status().isOk()).andReturn();
+        String token = new ObjectMapper().readTree(login.getResponse().getContentAsString()).get("token").asText();
+
+        mockMvc.perform(post("/user/renew-token").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        // 登出時沒有安全上下文，使用者由令牌取得並簽發登出令牌
+        mockMvc.perform(post("/user/logout").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.logoutToken").isString());
+
+        // 登出後舊的令牌不可再使用
+        mockMvc.perform(post("/user/renew-token").header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Configuration
+    @EnableWebMvc
+    @Import({ SecurityConfig.class, JwtAuthenticationFilter.class, JwtService.class, JwtRevocationService.class,
+            TokenRepository.class, UserDetailsCache.class, UserController.class })
+    static class TestConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.mli.discord.core.interceptor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.HashMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.mli.discord.core.exception.InvalidJwtAuthenticationException;
+import com.mli.discord.module.login.model.StompPrincipal;
+import com.mli.discord.module.login.service.JwtRevocationService;
+import com.mli.discord.module.login.service.JwtService;
+
+class JwtStompAuthenticationInterceptorTest {
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final UserDetails user = new User("alice", "password", AuthorityUtils.createAuthorityList("NORMAL"));
+
+    private JwtService jwtService;
+    private JwtStompAuthenticationInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "validatedCacheSize", 10000);
+        ReflectionTestUtils.setField(jwtService, "jwtRevocationService", mock(JwtRevocationService.class));
+        jwtService.init();
+
+        interceptor = new JwtStompAuthenticationInterceptor();
+        ReflectionTestUtils.setField(interceptor, "jwtService", jwtService);
+        UserDetailsService userDetailsService = username -> user;
+        ReflectionTestUtils.setField(interceptor, "userDetailsService", userDetailsService);
+    }
+
+    @Test
+    void testConnectBindsImmutablePrincipal() {
+        Message<?> connect = frame(StompCommand.CONNECT, "Bearer " + jwtService.generateToken(user));
+        Message<?> result = interceptor.preSend(connect, null);
+
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(result, StompHeaderAccessor.class);
+        StompPrincipal principal = (StompPrincipal) accessor.getUser();
+        assertEquals("alice", principal.getName());
+        assertTrue(principal.hasAuthority("NORMAL"));
+        assertThrows(UnsupportedOperationException.class, () -> principal.getAuthorities().add("ADMIN"));
+    }
+
+    @Test
+    void testConnectWithoutValidTokenIsRejected() {
+        assertThrows(InvalidJwtAuthenticationException.class,
+                () -> interceptor.preSend(frame(StompCommand.CONNECT, null), null));
+        assertThrows(InvalidJwtAuthenticationException.class,
+                () -> interceptor.preSend(frame(StompCommand.CONNECT, "Bearer not-a-token"), null));
+    }
+
+    /**
+     * 每個 SEND 幀經過入站攔截器的平均耗時，比較舊版（wrap 複製標頭並由 HTTP 會話設定安全上下文）
+     * 與目前（只在 CONNECT 驗證）。執行方式：
+     * mvn test -Dtest=JwtStompAuthenticationInterceptorTest -Ddiscord.benchmark=true
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "discord.benchmark", matches = "true")
+    void benchmarkPerFrameOverhead() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.getSession().setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY,
+                SecurityContextHolder.createEmptyContext());
+        ChannelInterceptor legacy = new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+                if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+                    accessor.getSessionAttributes().put("roomId", accessor.getFirstNativeHeader("roomId"));
+                }
+                ServletRequestAttributes attr = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+                if (attr != null) {
+                    SecurityContext sc = (SecurityContext) attr.getRequest().getSession()
+                            .getAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY);
+                    SecurityContextHolder.setContext(sc);
+                }
+                return message;
+            }
+        };
+
+        int frames = 1_000_000;
+        Message<?> send = frame(StompCommand.SEND, null);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            for (ChannelInterceptor benchmarked : new ChannelInterceptor[] { legacy, interceptor }) {
+                for (int i = 0; i < frames / 10; i++) {
+                    benchmarked.preSend(send, null);
+                }
+                long start = System.nanoTime();
+                for (int i = 0; i < frames; i++) {
+                    benchmarked.preSend(send, null);
+                }
+                logger.info("{}: {} ns/frame", benchmarked == legacy ? "per-frame lookup" : "authenticate once",
+                        (System.nanoTime() - start) / frames);
+            }
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static Message<?> frame(StompCommand command, String authorization) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        if (authorization != null) {
+            accessor.addNativeHeader("Authorization", authorization);
+        }
+        accessor.setSessionId("session-1");
+        accessor.setSessionAttributes(new HashMap<>());
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
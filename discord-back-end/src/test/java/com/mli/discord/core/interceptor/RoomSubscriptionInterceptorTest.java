@@ -0,0 +1,63 @@
+package com.mli.discord.core.interceptor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.security.Principal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.mli.discord.module.grouping.service.UserToRoomService;
+import com.mli.discord.module.login.model.StompPrincipal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RoomSubscriptionInterceptorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Principal alice = new StompPrincipal("alice", AuthorityUtils.createAuthorityList("NORMAL"));
+    private RoomSubscriptionInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        UserToRoomService userToRoomService = mock(UserToRoomService.class);
+        when(userToRoomService.isUserInRoom("alice", 1)).thenReturn(true);
+        interceptor = new RoomSubscriptionInterceptor();
+        ReflectionTestUtils.setField(interceptor, "userToRoomService", userToRoomService);
+        ReflectionTestUtils.setField(interceptor, "meterRegistry", meterRegistry);
+        interceptor.init();
+    }
+
+    @Test
+    void testOnlyRoomMembersCanSubscribeToRoomTopic() {
+        assertNotNull(interceptor.preSend(subscribe("/topic/message/1", alice), null));
+        assertNull(interceptor.preSend(subscribe("/topic/message/2", alice), null));
+        assertNull(interceptor.preSend(subscribe("/topic/message/1", null), null));
+        assertNull(interceptor.preSend(subscribe("/topic/message/not-a-room", alice), null));
+        // 非房間主題不受限制
+        assertNotNull(interceptor.preSend(subscribe("/topic/message", alice), null));
+        assertNotNull(interceptor.preSend(subscribe("/user/queue/export-jobs", alice), null));
+
+        assertEquals(1.0, meterRegistry.counter("discord.stomp.subscribe", "decision", "allowed").count());
+        assertEquals(3.0, meterRegistry.counter("discord.stomp.subscribe", "decision", "denied").count());
+    }
+
+    private static Message<?> subscribe(String destination, Principal user) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setDestination(destination);
+        accessor.setSubscriptionId("sub-0");
+        accessor.setUser(user);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,77 @@
+package com.mli.discord.core.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.mli.discord.core.exception.PasswordHashRejectedException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BoundedPasswordEncoderTest {
+
+    @Test
+    void testSaturatedPoolRejectsImmediately() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(blocking, 1, 1, 10_000, meterRegistry);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            // 一個執行中、一個在佇列中
+            callers.submit(() -> encoder.encode("a"));
+            callers.submit(() -> encoder.encode("b"));
+            while (meterRegistry.get("discord.security.password-hash.queue.depth").gauge().value() < 1) {
+                Thread.sleep(5);
+            }
+
+            long start = System.nanoTime();
+            assertThrows(PasswordHashRejectedException.class, () -> encoder.encode("c"));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+            assertEquals(1.0, meterRegistry.counter("discord.security.password-hash.rejected").count());
+        } finally {
+            release.countDown();
+            callers.shutdown();
+            encoder.destroy();
+        }
+    }
+
+    @Test
+    void testUpgradeEncodingFollowsConfiguredStrength() {
+        String weakHash = new BCryptPasswordEncoder(4).encode("password1");
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(5), 1, 4, 10_000,
+                new SimpleMeterRegistry());
+        try {
+            assertTrue(encoder.matches("password1", weakHash));
+            assertTrue(encoder.upgradeEncoding(weakHash));
+            assertFalse(encoder.upgradeEncoding(encoder.encode("password1")));
+        } finally {
+            encoder.destroy();
+        }
+    }
+}
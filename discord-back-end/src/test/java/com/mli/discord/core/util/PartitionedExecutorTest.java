@@ -0,0 +1,72 @@
+package com.mli.discord.core.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PartitionedExecutorTest {
+
+    @Test
+    void testSameKeyRunsInSubmissionOrder() {
+        PartitionedExecutor executor = new PartitionedExecutor("test.lanes", 4, 10_000, 1000,
+                new SimpleMeterRegistry());
+        executor.start();
+        Map<Integer, List<Integer>> seen = new ConcurrentHashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            int key = i % 8;
+            int sequence = i;
+            assertTrue(executor.execute(key,
+                    () -> seen.computeIfAbsent(key, k -> Collections.synchronizedList(new ArrayList<>())).add(sequence)));
+        }
+        executor.shutdown(10_000);
+
+        for (int key = 0; key < 8; key++) {
+            List<Integer> sequences = seen.get(key);
+            assertEquals(125, sequences.size());
+            for (int i = 1; i < sequences.size(); i++) {
+                assertTrue(sequences.get(i - 1) < sequences.get(i));
+            }
+        }
+    }
+
+    @Test
+    void testFullLaneRejectsAfterTimeout() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PartitionedExecutor executor = new PartitionedExecutor("test.lanes", 1, 1, 10, meterRegistry);
+        executor.start();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // 一個執行中、一個在佇列中
+            executor.execute(1, () -> {
+                running.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            running.await();
+            assertTrue(executor.execute(1, () -> {
+            }));
+
+            assertFalse(executor.execute(1, () -> {
+            }));
+            assertEquals(1.0, meterRegistry.counter("test.lanes.rejected").count());
+        } finally {
+            release.countDown();
+            executor.shutdown(10_000);
+        }
+    }
+}
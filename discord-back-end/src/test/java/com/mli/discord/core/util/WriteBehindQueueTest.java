@@ -0,0 +1,69 @@
+package com.mli.discord.core.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class WriteBehindQueueTest {
+
+    @Test
+    void testFlushesInBatchesAndDrainsOnShutdown() {
+        List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+        WriteBehindQueue<Integer> queue = new WriteBehindQueue<>("test.queue", 100, 10, 20, 10,
+                batch -> batches.add(List.copyOf(batch)), new SimpleMeterRegistry());
+        queue.start();
+        for (int i = 0; i < 35; i++) {
+            assertTrue(queue.offer(i));
+        }
+        queue.shutdown();
+
+        int total = batches.stream().mapToInt(List::size).sum();
+        assertEquals(35, total, "All items should be flushed by shutdown");
+        assertTrue(batches.stream().allMatch(batch -> batch.size() <= 10), "Batches must respect batch size");
+        assertEquals(0, queue.depth());
+    }
+
+    @Test
+    void testOfferRejectedWhenFullOrStopped() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        WriteBehindQueue<Integer> queue = new WriteBehindQueue<>("test.full", 1, 1, 20, 50, batch -> {
+            flushing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, registry);
+        assertFalse(queue.offer(0), "Offer before start should be rejected");
+        assertEquals(1.0, registry.get("test.full.rejected").counter().count());
+
+        queue.start();
+        try {
+            // 背景執行緒卡在第一筆的寫出，第二筆填滿容量為 1 的佇列
+            assertTrue(queue.offer(1));
+            assertTrue(flushing.await(5, TimeUnit.SECONDS));
+            assertTrue(queue.offer(2));
+            assertEquals(1, queue.depth());
+
+            long start = System.nanoTime();
+            assertFalse(queue.offer(3), "Offer into a full queue should time out");
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 45,
+                    "Offer should wait for the offer timeout before giving up");
+            assertEquals(2.0, registry.get("test.full.rejected").counter().count());
+        } finally {
+            release.countDown();
+            queue.shutdown();
+        }
+    }
+}
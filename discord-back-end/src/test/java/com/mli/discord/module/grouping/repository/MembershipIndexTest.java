@@ -0,0 +1,64 @@
+package com.mli.discord.module.grouping.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.mli.discord.module.grouping.model.UserToRoom;
+
+class MembershipIndexTest {
+
+    @Test
+    void testBothDirectionsStayConsistent() {
+        MembershipIndex index = new MembershipIndex();
+        index.load(Arrays.asList(new UserToRoom("alice", 1), new UserToRoom("bob", 1), new UserToRoom("alice", 2)),
+                UserToRoom::getUsername, UserToRoom::getRoomId);
+        assertEquals(Set.of("alice", "bob"), index.members(1));
+        assertEquals(Set.of(1, 2), index.containers("alice"));
+        assertEquals(3, index.size());
+
+        Set<String> snapshot = index.members(1);
+        index.remove("bob", 1);
+        index.add("carol", 2);
+        // 讀取端持有的集合不受之後的寫入影響
+        assertEquals(Set.of("alice", "bob"), snapshot);
+        assertThrows(UnsupportedOperationException.class, () -> index.members(1).add("mallory"));
+        assertFalse(index.isMember("bob", 1));
+        assertTrue(index.isMember("carol", 2));
+
+        index.move("carol", 3);
+        assertEquals(Set.of(3), index.containers("carol"));
+        assertFalse(index.isMember("carol", 2));
+
+        index.removeMember("alice");
+        assertTrue(index.members(1).isEmpty());
+        assertTrue(index.members(2).isEmpty());
+        assertTrue(index.containers("alice").isEmpty());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void testUpdatesInsideTransactionApplyAfterCommit() {
+        MembershipIndex index = new MembershipIndex();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.add("alice", 1);
+            assertFalse(index.isMember("alice", 1));
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager
+                    .getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertTrue(index.isMember("alice", 1));
+    }
+}
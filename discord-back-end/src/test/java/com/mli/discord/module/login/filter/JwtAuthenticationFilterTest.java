@@ -0,0 +1,137 @@
+package com.mli.discord.module.login.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.mli.discord.module.login.service.JwtRevocationService;
+import com.mli.discord.module.login.service.JwtService;
+
+class JwtAuthenticationFilterTest {
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final UserDetails user = new User("alice", "password", AuthorityUtils.createAuthorityList("ROLE_USER"));
+    private final UserDetailsService userDetailsService = username -> user;
+
+    private JwtService jwtService;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = newJwtService(10000);
+        filter = newFilter(jwtService);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testValidTokenAuthenticatesAndTamperedTokenIsRejected() throws Exception {
+        String token = jwtService.generateToken(user);
+
+        MockHttpServletResponse response = doFilter(token);
+        assertEquals(200, response.getStatus());
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals("alice", SecurityContextHolder.getContext().getAuthentication().getName());
+        SecurityContextHolder.clearContext();
+
+        // 竄改簽名的令牌不可因快取而通過
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        response = doFilter(tampered);
+        assertEquals(401, response.getStatus());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void testRevokedTokenIsRejectedEvenWhenCached() throws Exception {
+        JwtRevocationService revocationService = revocationService(jwtService);
+        String token = jwtService.generateToken(Collections.singletonMap("jti", "revoked-jti"), user);
+        assertEquals(200, doFilter(token).getStatus());
+        SecurityContextHolder.clearContext();
+
+        when(revocationService.isRevoked("revoked-jti")).thenReturn(true);
+        assertEquals(401, doFilter(token).getStatus());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    /**
+     * 過濾器每個請求的平均耗時，比較有無已驗證令牌快取。執行方式：
+     * mvn test -Dtest=JwtAuthenticationFilterTest -Ddiscord.benchmark=true
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "discord.benchmark", matches = "true")
+    void benchmarkFilterOverhead() throws Exception {
+        int requests = 200_000;
+        for (int cacheSize : new int[] { 0, 10000 }) {
+            JwtService service = newJwtService(cacheSize);
+            JwtAuthenticationFilter benchmarked = newFilter(service);
+            String token = service.generateToken(user);
+            // 暖機
+            for (int i = 0; i < requests / 10; i++) {
+                doFilter(benchmarked, token);
+                SecurityContextHolder.clearContext();
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < requests; i++) {
+                doFilter(benchmarked, token);
+                SecurityContextHolder.clearContext();
+            }
+            logger.info("validated-cache-size {}: {} ns/request", cacheSize, (System.nanoTime() - start) / requests);
+        }
+    }
+
+    private MockHttpServletResponse doFilter(String token) throws Exception {
+        return doFilter(filter, token);
+    }
+
+    private static MockHttpServletResponse doFilter(JwtAuthenticationFilter filter, String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/rooms");
+        request.setServletPath("/rooms");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static JwtService newJwtService(int cacheSize) {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "validatedCacheSize", cacheSize);
+        ReflectionTestUtils.setField(service, "jwtRevocationService", mock(JwtRevocationService.class));
+        service.init();
+        return service;
+    }
+
+    private static JwtRevocationService revocationService(JwtService service) {
+        return (JwtRevocationService) ReflectionTestUtils.getField(service, "jwtRevocationService");
+    }
+
+    private JwtAuthenticationFilter newFilter(JwtService service) {
+        JwtAuthenticationFilter jwtFilter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(jwtFilter, "jwtService", service);
+        ReflectionTestUtils.setField(jwtFilter, "userDetailsService", userDetailsService);
+        return jwtFilter;
+    }
+}
@@ -0,0 +1,67 @@
+package com.mli.discord.module.login.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TokenRepositoryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TokenRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new TokenRepository();
+        ReflectionTestUtils.setField(repository, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(repository, "maxSize", 3);
+        ReflectionTestUtils.setField(repository, "tickMillis", 10L);
+        // 8 個槽 x 10ms，較長的有效期限需要繞過數圈
+        ReflectionTestUtils.setField(repository, "wheelSize", 8);
+        repository.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.shutdown();
+    }
+
+    @Test
+    void testExpiredTokensAreEvictedAcrossWheelRounds() throws Exception {
+        long now = System.currentTimeMillis();
+        assertTrue(repository.storeToken("short", "alice", now + 30));
+        assertTrue(repository.storeToken("long", "alice", now + 250));
+        assertTrue(repository.isTokenPresent("short"));
+        assertEquals("alice", repository.getUsername("long"));
+
+        Thread.sleep(120);
+        assertFalse(repository.isTokenPresent("short"));
+        assertTrue(repository.isTokenPresent("long"));
+        assertEquals(1, repository.size());
+
+        Thread.sleep(250);
+        assertEquals(0, repository.size());
+        assertEquals(2.0, meterRegistry.counter("discord.tokens.store.evictions").count());
+    }
+
+    @Test
+    void testSizeCapRejectsNewTokens() {
+        long exp = System.currentTimeMillis() + 60_000;
+        assertTrue(repository.storeToken("a", "alice", exp));
+        assertTrue(repository.storeToken("b", "alice", exp));
+        assertTrue(repository.storeToken("c", "alice", exp));
+        assertFalse(repository.storeToken("d", "alice", exp));
+        // 已存在的令牌仍可更新
+        assertTrue(repository.storeToken("a", "bob", exp));
+
+        repository.removeToken("b");
+        assertTrue(repository.storeToken("d", "alice", exp));
+        assertFalse(repository.storeToken("e", "alice", System.currentTimeMillis() - 1));
+    }
+}
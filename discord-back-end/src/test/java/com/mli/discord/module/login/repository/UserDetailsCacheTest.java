@@ -0,0 +1,105 @@
+package com.mli.discord.module.login.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class UserDetailsCacheTest {
+
+    private UserDetailsCache cache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserDetailsCache();
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "ttlMillis", 60_000L);
+        ReflectionTestUtils.setField(cache, "maxSize", 100);
+        cache.init();
+    }
+
+    @Test
+    void testConcurrentMissesAreCoalesced() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Function<String, UserDetails> slowLoader = username -> {
+            loads.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return user(username, "hash");
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<UserDetails>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.get("alice", slowLoader)));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            UserDetails first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<UserDetails> result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testInvalidateForcesReload() {
+        assertEquals("old", cache.get("alice", username -> load(username, "old")).getPassword());
+        assertEquals("old", cache.get("alice", username -> load(username, "new")).getPassword());
+
+        cache.invalidate("alice");
+        assertEquals("new", cache.get("alice", username -> load(username, "new")).getPassword());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testOverflowEvictsOldestEntriesOnly() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            cache.get("user" + i, username -> load(username, "hash"));
+            Thread.sleep(i == 0 ? 5 : 0);
+        }
+        Thread.sleep(5);
+        cache.get("user100", username -> load(username, "hash"));
+        assertEquals(101, loads.get());
+
+        // 剛載入的項目仍在快取中，最舊的項目已被淘汰
+        cache.get("user100", username -> load(username, "hash"));
+        assertEquals(101, loads.get());
+        cache.get("user0", username -> load(username, "hash"));
+        assertEquals(102, loads.get());
+    }
+
+    private UserDetails load(String username, String password) {
+        loads.incrementAndGet();
+        return user(username, password);
+    }
+
+    private static UserDetails user(String username, String password) {
+        return new User(username, password, AuthorityUtils.createAuthorityList("NORMAL"));
+    }
+}
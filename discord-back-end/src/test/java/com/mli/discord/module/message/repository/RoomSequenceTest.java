@@ -0,0 +1,69 @@
+package com.mli.discord.module.message.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.mli.discord.module.message.dao.MessageDAO;
+import com.mli.discord.module.message.dto.RoomSeqDTO;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RoomSequenceTest {
+
+    private MessageDAO messageDAO;
+    private RoomSequence roomSequence;
+
+    @BeforeEach
+    void setUp() {
+        messageDAO = mock(MessageDAO.class);
+        when(messageDAO.selectMaxSeqByRoom()).thenReturn(Arrays.asList(new RoomSeqDTO(1, 41L)));
+        roomSequence = new RoomSequence();
+        ReflectionTestUtils.setField(roomSequence, "messageDAO", messageDAO);
+        ReflectionTestUtils.setField(roomSequence, "meterRegistry", new SimpleMeterRegistry());
+        roomSequence.init();
+    }
+
+    @Test
+    void testContinuesFromRecoveredMaximum() {
+        assertEquals(41, roomSequence.current(1));
+        assertEquals(42, roomSequence.next(1));
+
+        // 啟動後才出現的房間只查詢一次
+        when(messageDAO.selectMaxSeq(2)).thenReturn(null);
+        assertEquals(1, roomSequence.next(2));
+        assertEquals(2, roomSequence.next(2));
+        verify(messageDAO, times(1)).selectMaxSeq(2);
+    }
+
+    @Test
+    void testConcurrentAssignmentsAreUniqueAndContiguous() throws Exception {
+        Set<Long> assigned = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8000; i++) {
+            pool.execute(() -> assigned.add(roomSequence.next(1)));
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+
+        Set<Long> expected = new HashSet<>();
+        for (long seq = 42; seq < 42 + 8000; seq++) {
+            expected.add(seq);
+        }
+        assertEquals(expected, assigned);
+    }
+}
@@ -24,6 +24,7 @@ import org.springframework.util.ResourceUtils;
 import com.mli.discord.module.message.dao.RSADAO;
 import com.mli.discord.module.message.model.Key;
 import com.mli.discord.module.message.model.RSAEntity;
+import com.mli.discord.module.message.utility.SignatureScheme;
 
 @SpringBootTest
 class RSAServiceTest {
@@ -58,7 +59,7 @@ class RSAServiceTest {
         assertNotNull(key, "Key pair generation failed");
 
         // 使用生成的私鑰進行簽名
-        String signature = rsaService.signData(base64Data, key.getPrivateKey());
+        String signature = rsaService.signData(base64Data, key);
         assertNotNull(signature, "Failed to generate signature");
 
         // 创建签名记录实体并保存到数据库
@@ -68,6 +69,7 @@ class RSAServiceTest {
         rsaEntity.setPub(key.getPublicKey());
         rsaEntity.setSignature(signature);
         rsaEntity.setData(base64Data);
+        rsaEntity.setAlgorithm(key.getAlgorithm());
         rsaService.insertSignatureRecord(rsaEntity);
 
         assertNotNull(rsaService.findSignatureByUsernameAndFileName(username, fileName), "Insertion failed.");
@@ -82,7 +84,8 @@ class RSAServiceTest {
         assertNotNull(retrievedEntity, "Retrieved entity is null");
 
         boolean isSignatureVerified = rsaService.verifySignature(retrievedEntity.getData(),
-                retrievedEntity.getPub(), retrievedEntity.getSignature());
+                retrievedEntity.getPub(), retrievedEntity.getSignature(),
+                SignatureScheme.fromAlgorithm(retrievedEntity.getAlgorithm()));
         assertTrue(isSignatureVerified, "Signature verification failed using database data");
     }
 
@@ -110,7 +113,7 @@ class RSAServiceTest {
         assertNotNull(key, "Key pair generation failed");
 
         // 使用生成的私鑰進行簽名
-        String signature = rsaService.signData(base64Data, key.getPrivateKey());
+        String signature = rsaService.signData(base64Data, key);
         assertNotNull(signature, "Failed to generate signature");
 
         // 创建签名记录实体并保存到数据库
@@ -120,6 +123,7 @@ class RSAServiceTest {
         rsaEntity.setPub(key.getPublicKey());
         rsaEntity.setSignature(signature);
         rsaEntity.setData(base64Data);
+        rsaEntity.setAlgorithm(key.getAlgorithm());
         rsaService.insertSignatureRecord(rsaEntity);
 
         try {
@@ -137,7 +141,8 @@ class RSAServiceTest {
         logger.info("Base64Data: {} vs {}", base64Data, retrievedEntity.getData());
 
         boolean isSignatureVerified = rsaService.verifySignature(retrievedEntity.getData(),
-                retrievedEntity.getPub(), retrievedEntity.getSignature());
+                retrievedEntity.getPub(), retrievedEntity.getSignature(),
+                SignatureScheme.fromAlgorithm(retrievedEntity.getAlgorithm()));
         assertTrue(isSignatureVerified, "Signature verification failed using database data");
 
         assertEquals(true, isSignatureVerified, "All processes should complete successfully using database data");
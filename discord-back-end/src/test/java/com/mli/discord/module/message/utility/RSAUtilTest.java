@@ -0,0 +1,238 @@
+package com.mli.discord.module.message.utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mli.discord.module.message.model.Key;
+
+class RSAUtilTest {
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final RSAUtil rsaUtil = new RSAUtil();
+
+    @Test
+    void testStreamAndStringSignaturesAreInterchangeable() throws Exception {
+        Key key = createKey();
+        String data = Base64.getEncoder().encodeToString(randomBytes(64 * 1024));
+
+        String stringSignature = rsaUtil.sign(data, key.getPrivateKey());
+        String streamSignature = rsaUtil.sign(SignatureScheme.MD5_WITH_RSA,
+                new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)), key.getPrivateKey());
+        assertNotNull(stringSignature);
+        assertEquals(stringSignature, streamSignature, "MD5withRSA signatures are deterministic");
+
+        assertTrue(rsaUtil.verify(data, key.getPublicKey(), streamSignature));
+        assertTrue(rsaUtil.verify(SignatureScheme.MD5_WITH_RSA,
+                new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)), key.getPublicKey(), stringSignature));
+        assertFalse(rsaUtil.verify(data + "x", key.getPublicKey(), stringSignature));
+    }
+
+    @Test
+    void testSigningStreamMatchesOneShotSignature() throws Exception {
+        Key key = createKey();
+        byte[] data = randomBytes(300 * 1024);
+
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        SigningOutputStream signingStream = rsaUtil.signingStream(SignatureScheme.MD5_WITH_RSA, sink,
+                key.getPrivateKey());
+        signingStream.write(data, 0, 1000);
+        signingStream.write(data[1000]);
+        signingStream.write(data, 1001, data.length - 1001);
+        String signature = signingStream.sign();
+
+        assertEquals(data.length, sink.size());
+        assertEquals(rsaUtil.sign(SignatureScheme.MD5_WITH_RSA, ByteBuffer.wrap(data), key.getPrivateKey()),
+                signature);
+        assertTrue(rsaUtil.verify(SignatureScheme.MD5_WITH_RSA, ByteBuffer.wrap(data), key.getPublicKey(), signature));
+    }
+
+    @Test
+    void testEverySchemeRoundTripsAndRecordsAlgorithm() throws Exception {
+        byte[] data = randomBytes(100 * 1024);
+        for (SignatureScheme scheme : SignatureScheme.values()) {
+            if (!scheme.isAvailable()) {
+                logger.info("{} not available on this JDK, skipped", scheme.getAlgorithm());
+                continue;
+            }
+            Key key = createKey(scheme);
+            assertEquals(scheme, SignatureScheme.fromAlgorithm(key.getAlgorithm()));
+
+            ByteArrayOutputStream sink = new ByteArrayOutputStream();
+            String signature;
+            try (SigningOutputStream out = rsaUtil.signingStream(scheme, sink, key.getPrivateKey())) {
+                out.write(data);
+                signature = out.sign();
+            }
+            assertTrue(rsaUtil.verify(scheme, new ByteArrayInputStream(data), key.getPublicKey(), signature),
+                    scheme.getAlgorithm());
+            data[0] ^= 1;
+            assertFalse(rsaUtil.verify(scheme, new ByteArrayInputStream(data), key.getPublicKey(), signature),
+                    scheme.getAlgorithm());
+            data[0] ^= 1;
+        }
+    }
+
+    @Test
+    void testMissingAlgorithmMeansLegacyScheme() {
+        assertEquals(SignatureScheme.MD5_WITH_RSA, SignatureScheme.fromAlgorithm(null));
+        assertEquals(SignatureScheme.SHA256_WITH_ECDSA, SignatureScheme.fromAlgorithm("SHA256withECDSA"));
+    }
+
+    /**
+     * 串流簽名與驗證的吞吐量。執行方式：
+     * mvn test -Dtest=RSAUtilTest -Ddiscord.benchmark=true
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "discord.benchmark", matches = "true")
+    void benchmarkStreamingSignAndVerify() throws Exception {
+        Key key = createKey();
+        for (int sizeMb : new int[] { 1, 100 }) {
+            long bytes = sizeMb * 1024L * 1024L;
+            // 暖機
+            rsaUtil.sign(SignatureScheme.MD5_WITH_RSA, new RepeatingInputStream(bytes), key.getPrivateKey());
+
+            long start = System.nanoTime();
+            String signature;
+            try (SigningOutputStream out = rsaUtil.signingStream(SignatureScheme.MD5_WITH_RSA,
+                    OutputStream.nullOutputStream(), key.getPrivateKey())) {
+                new RepeatingInputStream(bytes).transferTo(out);
+                signature = out.sign();
+            }
+            long signNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            assertTrue(rsaUtil.verify(SignatureScheme.MD5_WITH_RSA, new RepeatingInputStream(bytes),
+                    key.getPublicKey(), signature));
+            long verifyNanos = System.nanoTime() - start;
+
+            logger.info("{} MB: sign {} MB/s, verify {} MB/s", sizeMb,
+                    String.format("%.1f", sizeMb / (signNanos / 1e9)),
+                    String.format("%.1f", sizeMb / (verifyNanos / 1e9)));
+        }
+
+        // 原本的 String 路徑：先轉成 Base64 字串再整段簽名，只量測 1 MB 以免耗盡記憶體
+        String base64 = Base64.getEncoder().encodeToString(randomBytes(1024 * 1024));
+        long start = System.nanoTime();
+        String signature = rsaUtil.sign(base64, key.getPrivateKey());
+        assertTrue(rsaUtil.verify(base64, key.getPublicKey(), signature));
+        logger.info("1 MB via Base64 String: sign+verify {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * 各簽章演算法的鑰匙對產生、簽名與驗證耗時比較 (1 KB 訊息)。執行方式：
+     * mvn test -Dtest=RSAUtilTest -Ddiscord.benchmark=true
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "discord.benchmark", matches = "true")
+    void benchmarkSignatureSchemes() throws Exception {
+        int keyPairs = 50;
+        int operations = 2000;
+        ByteBuffer data = ByteBuffer.wrap(randomBytes(1024));
+        for (SignatureScheme scheme : SignatureScheme.values()) {
+            if (!scheme.isAvailable()) {
+                continue;
+            }
+            int keySize = scheme == SignatureScheme.MD5_WITH_RSA ? RSAUtil.DEFAULT_KEY_SIZE : 0;
+            // 暖機
+            Key key = createKey(scheme, keySize);
+            for (int i = 0; i < operations; i++) {
+                rsaUtil.verify(scheme, data.duplicate(), key.getPublicKey(),
+                        rsaUtil.sign(scheme, data.duplicate(), key.getPrivateKey()));
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < keyPairs; i++) {
+                createKey(scheme, keySize);
+            }
+            double keygenMicros = (System.nanoTime() - start) / 1e3 / keyPairs;
+
+            String signature = null;
+            start = System.nanoTime();
+            for (int i = 0; i < operations; i++) {
+                signature = rsaUtil.sign(scheme, data.duplicate(), key.getPrivateKey());
+            }
+            double signMicros = (System.nanoTime() - start) / 1e3 / operations;
+
+            start = System.nanoTime();
+            for (int i = 0; i < operations; i++) {
+                assertTrue(rsaUtil.verify(scheme, data.duplicate(), key.getPublicKey(), signature));
+            }
+            double verifyMicros = (System.nanoTime() - start) / 1e3 / operations;
+
+            logger.info("{}: keygen {} us, sign {} us, verify {} us, public key {} chars", scheme.getAlgorithm(),
+                    String.format("%.1f", keygenMicros), String.format("%.1f", signMicros),
+                    String.format("%.1f", verifyMicros), key.getPublicKey().length());
+        }
+    }
+
+    private Key createKey() {
+        Key key = new Key();
+        rsaUtil.createRSAKey(key);
+        assertNotNull(key.getPrivateKey(), "Key pair generation failed");
+        return key;
+    }
+
+    private Key createKey(SignatureScheme scheme) {
+        return createKey(scheme, RSAUtil.DEFAULT_KEY_SIZE);
+    }
+
+    private Key createKey(SignatureScheme scheme, int rsaKeySize) {
+        Key key = new Key();
+        rsaUtil.createKey(key, scheme, rsaKeySize);
+        assertNotNull(key.getPrivateKey(), "Key pair generation failed: " + scheme.getAlgorithm());
+        return key;
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+
+    /**
+     * 重複輸出固定區塊的串流，用於產生大檔案而不佔用等量記憶體。
+     */
+    private static final class RepeatingInputStream extends InputStream {
+        private final byte[] block = randomBytes(64 * 1024);
+        private long remaining;
+
+        RepeatingInputStream(long size) {
+            this.remaining = size;
+        }
+
+        @Override
+        public int read() {
+            if (remaining <= 0) {
+                return -1;
+            }
+            return block[(int) (--remaining % block.length)] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int count = (int) Math.min(Math.min(len, remaining), block.length);
+            System.arraycopy(block, 0, b, off, count);
+            remaining -= count;
+            return count;
+        }
+    }
+}
@@ -26,7 +26,7 @@ export const store = createStore({
     connectStomp({ commit }) {
       const socket = new SockJS(SOCKET_URL);
       const client = Stomp.over(socket);
-      client.connect({}, (frame) => {
+      client.connect({ Authorization: `Bearer ${sessionStorage.getItem("authToken")}` }, (frame) => {
         commit("setStompClient", client);
       });
     },